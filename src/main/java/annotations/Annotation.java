@@ -7,6 +7,8 @@ package annotations;
 public abstract class Annotation {
 
 	protected String id;
+	// code of the id (see AnnotationRegistry), -1 until it is needed
+	private int code = -1;
 	
 	public Annotation(String id) {
 		this.id = id;
@@ -18,6 +20,18 @@ public abstract class Annotation {
 
 	public void setId(String id) {
 		this.id = id;
+		this.code = -1;
+	}
+
+	/**
+	 * An int code of the id, annotations with equal ids have equal codes
+	 * 
+	 * @return the code given by AnnotationRegistry
+	 */
+	public int getCode() {
+		if (code < 0)
+			code = AnnotationRegistry.getCode(id);
+		return code;
 	}
 	
 	@Override
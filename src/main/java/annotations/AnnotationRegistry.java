@@ -0,0 +1,62 @@
+package annotations;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of annotation ids and of immutable annotations.
+ * 
+ * Each annotation id receives a dense int code, so annotations can be
+ * compared without comparing strings. Sector and Intent have no state besides
+ * their ids, so a single instance of each is shared (flyweight) instead of
+ * being cloned for every position.
+ * 
+ * @author cleber
+ *
+ */
+public class AnnotationRegistry {
+
+	private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+	private static final AtomicInteger nextCode = new AtomicInteger(0);
+	private static final Map<String, Sector> sectors = new ConcurrentHashMap<>();
+	private static final Map<String, Intent> intents = new ConcurrentHashMap<>();
+
+	// codes of the ids used to prune the search
+	public static final int MANAGE_SECTOR = getCode("manage_sector");
+	public static final int MANAGE_TRACK = getCode("manage_track");
+
+	private AnnotationRegistry() {}
+
+	/**
+	 * The code of an annotation id, the same id has always the same code
+	 * 
+	 * @param id an annotation id
+	 * @return an integer from 0 to the number of registered ids - 1, or -1 for null
+	 */
+	public static int getCode(String id) {
+		if (id == null)
+			return -1;
+		return codes.computeIfAbsent(id, k -> nextCode.getAndIncrement());
+	}
+
+	/**
+	 * The shared sector of the given id
+	 * 
+	 * @param id a sector id
+	 * @return an immutable sector
+	 */
+	public static Sector sector(String id) {
+		return sectors.computeIfAbsent(id, Sector::new);
+	}
+
+	/**
+	 * The shared intent of the given id
+	 * 
+	 * @param id an intent id
+	 * @return an immutable intent
+	 */
+	public static Intent intent(String id) {
+		return intents.computeIfAbsent(id, Intent::new);
+	}
+}
@@ -1,6 +1,8 @@
 package annotations;
 
 /**
+ * A intent is immutable, it can be shared (see AnnotationRegistry)
+ * 
  * @author cleber
  *
  */
@@ -15,10 +17,16 @@ public class Intent extends Annotation {
 		return this.getClass().getSimpleName().substring(0, 1) + "[" + this.id + "]";
     }
     
+	@Override
+	public void setId(String id) {
+		throw new UnsupportedOperationException("A intent is immutable!");
+	}
+
+	/**
+	 * No copy is needed, the same instance is returned
+	 */
 	public Intent clone() {
-		Intent clone = new Intent(this.id);
-	
-	    return clone;
+		return this;
 	}
 
 }
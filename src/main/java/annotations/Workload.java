@@ -18,6 +18,15 @@ public class Workload extends Annotation {
 	public Object getValue() {
 		return (double) this.value;
 	}
+
+	/**
+	 * The value without boxing
+	 * 
+	 * @return the effort of this workload
+	 */
+	public double getEffort() {
+		return this.value;
+	}
 	
 	public void setValue(Object value) {
 		this.value = (double) value;
@@ -1,8 +1,5 @@
 package busca;
 
-import java.util.PriorityQueue;
-import java.util.Queue;
-
 /**
  *   Algoritmos de Busca A*
  *
@@ -45,25 +42,33 @@ public class AEstrela extends BuscaHeuristica {
         status.inicia();
         initFechados();
         
-        Queue<Nodo> abertos = new PriorityQueue<Nodo>(100, getNodoComparatorF()); // lista ordenada por f()
-        Nodo nInicial = new Nodo(inicial, null);
-        abertos.add(nInicial);
+        // lista ordenada por f(), empates pelo menor h() e depois pelo ultimo gerado
+        Fronteira abertos = novaFronteira(() -> new FronteiraBaldes(true));
+        Nodo nInicial = iniciaAbertos(inicial, abertos);
         theBest = nInicial; // o melhor nodo ja gerado
         
-        while (!parar && abertos.size() > 0) {
+        while (!parar && abertos.tamanho() > 0) {
+            verificaPontoDeControle(abertos);
             
-            Nodo melhor = abertos.remove();
-            status.explorando(melhor, abertos.size());
+            Nodo melhor = abertos.retira();
+            materializa(melhor);
+            status.explorando(melhor, abertos.tamanho());
             if (melhor.estado.ehMeta()) {
                 
+                terminaPontoDeControle(abertos, true);
                 status.termina(true);
                 return melhor;
             }
             
             if (maxF < 0 || melhor.f() < maxF) {
-                abertos.addAll( sucessores(melhor) );
+                for (Nodo n : sucessores(melhor)) {
+                    if (podeCompactar()) {
+                        n.compacta();
+                    }
+                    abertos.insere(n);
+                }
             }
-            if (getMaxAbertos() > 0 && abertos.size() > getMaxAbertos()) {
+            if (getMaxAbertos() > 0 && abertos.tamanho() > getMaxAbertos()) {
                 break;
             }
             
@@ -71,8 +76,8 @@ public class AEstrela extends BuscaHeuristica {
             if (melhor.f() < theBest.f()) {
                 theBest = melhor;
             }
-            
         }
+        terminaPontoDeControle(abertos, !parar && abertos.tamanho() == 0);
         status.termina(false);
         return null;
     }
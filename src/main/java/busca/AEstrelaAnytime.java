@@ -0,0 +1,210 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ *   Algoritmos de Busca ARA* (A* anytime com reparo)
+ *
+ *   Comeca como um A* com a heuristica multiplicada por um peso maior que 1,
+ *   que encontra uma solucao rapidamente mas sem garantia de ser otima. A
+ *   cada iteracao o peso diminui ate 1 e a busca e retomada (sem recomecar)
+ *   para melhorar a solucao. Os nodos que melhoraram depois de expandidos
+ *   na iteracao (inconsistentes) sao expandidos de novo na iteracao seguinte.
+ *
+ *   Cada solucao melhor e publicada (ver novaSolucao) com o seu limite de
+ *   sub-otimalidade: o custo dela e no maximo o limite vezes o custo otimo
+ *   (se a heuristica nao superestimar o custo). Se a busca for parada (por
+ *   exemplo pelo tempo maximo), a melhor solucao encontrada ate entao e
+ *   retornada.
+ *
+ *   (baseado em Likhachev, Gordon e Thrun, ARA*: Anytime A* with provable
+ *   bounds on sub-optimality, 2003)
+ */
+public class AEstrelaAnytime extends BuscaHeuristica {
+
+    /**
+     * peso inicial padrao: o h e multiplicado por ele (nao e uma porcentagem).
+     * Em Organisation o h conta os objetivos que faltam e cada passo custa
+     * centenas, entao o peso tem que ser grande para fazer diferenca.
+     */
+    public static final double PESO_INICIAL_PADRAO = 300;
+    /** quanto o peso diminui a cada iteracao por padrao, na mesma unidade do peso */
+    public static final double DECREMENTO_PADRAO = 50;
+
+    private double pesoInicial;
+    private double decremento;
+
+    private double peso;
+    private Nodo melhorSolucao;
+    private double limite;
+
+    /**
+     * busca sem mostrar status, com PESO_INICIAL_PADRAO diminuindo de
+     * DECREMENTO_PADRAO a cada iteracao
+     */
+    public AEstrelaAnytime() {
+        this(PESO_INICIAL_PADRAO, DECREMENTO_PADRAO);
+    }
+
+    /**
+     * busca sem mostrar status
+     * @param pesoInicial weight of the heuristic in the first iteration, h is multiplied by it
+     * @param decremento how much the weight is decreased in each iteration
+     */
+    public AEstrelaAnytime(double pesoInicial, double decremento) {
+        setPesos(pesoInicial, decremento);
+    }
+
+    /**
+     * busca mostrando status
+     * @param pesoInicial weight of the heuristic in the first iteration, h is multiplied by it
+     * @param decremento how much the weight is decreased in each iteration
+     * @param ms shows status on console
+     */
+    public AEstrelaAnytime(double pesoInicial, double decremento, MostraStatusConsole ms) {
+        super(ms);
+        setPesos(pesoInicial, decremento);
+    }
+
+    public void setPesos(double pesoInicial, double decremento) {
+        this.pesoInicial = Math.max(1, pesoInicial);
+        this.decremento = decremento > 0 ? decremento : DECREMENTO_PADRAO;
+    }
+
+    /**
+     * melhor solucao encontrada ate agora
+     * @return the best node found or null
+     */
+    public Nodo getMelhorSolucao() {
+        return melhorSolucao;
+    }
+
+    /**
+     * limite de sub-otimalidade da melhor solucao encontrada ate agora
+     * @return the cost of the best solution is at most this times the optimal cost
+     */
+    public double getLimite() {
+        return limite;
+    }
+
+    /**
+     * chamado cada vez que uma solucao melhor e encontrada
+     * @param n the new best node
+     * @param limite its cost is at most this times the optimal cost
+     */
+    protected void novaSolucao(Nodo n, double limite) {
+    }
+
+    public Nodo busca(Estado inicial) {
+        status.inicia();
+        initFechados();
+
+        peso = pesoInicial;
+        melhorSolucao = null;
+        limite = Double.POSITIVE_INFINITY;
+
+        PriorityQueue<Nodo> abertos = novaListaAbertos(new ArrayList<Nodo>());
+        List<Nodo> inconsistentes = new ArrayList<Nodo>();
+        abertos.add(new Nodo(inicial, null));
+
+        while (!parar) {
+            Nodo anterior = melhorSolucao;
+            melhoraCaminho(abertos, inconsistentes);
+
+            // o limite considera os nodos que ainda podem levar a uma solucao melhor
+            int menorF = Integer.MAX_VALUE;
+            for (Nodo n : abertos) {
+                menorF = Math.min(menorF, n.f());
+            }
+            for (Nodo n : inconsistentes) {
+                menorF = Math.min(menorF, n.f());
+            }
+            if (melhorSolucao != null) {
+                double novoLimite = menorF == Integer.MAX_VALUE || menorF >= melhorSolucao.g ? 1 : Math.min(peso, (double) melhorSolucao.g / menorF);
+                if (melhorSolucao != anterior || novoLimite < limite) {
+                    limite = Math.min(limite, novoLimite);
+                    novaSolucao(melhorSolucao, limite);
+                }
+            }
+
+            if (parar || (melhorSolucao != null && limite <= 1) || (abertos.isEmpty() && inconsistentes.isEmpty())) {
+                break;
+            }
+
+            // proxima iteracao com um peso menor: os inconsistentes voltam para abertos
+            peso = Math.max(1, peso - decremento);
+            inconsistentes.addAll(abertos);
+            abertos = novaListaAbertos(inconsistentes);
+            inconsistentes = new ArrayList<Nodo>();
+        }
+
+        if (melhorSolucao != null) {
+            status.custoTotal = melhorSolucao.estado.custoAcumulado();
+        }
+        status.termina(melhorSolucao != null);
+        return melhorSolucao;
+    }
+
+    /**
+     * expande os nodos com chave menor que o custo da melhor solucao
+     */
+    private void melhoraCaminho(PriorityQueue<Nodo> abertos, List<Nodo> inconsistentes) {
+        Set<Estado> expandidos = new HashSet<Estado>();
+
+        while (!parar && !abertos.isEmpty()) {
+            if (melhorSolucao != null && chave(abertos.peek()) >= melhorSolucao.g) {
+                break;
+            }
+
+            Nodo n = abertos.remove();
+            if (!expandidos.add(n.estado)) { // ja foi expandido nesta iteracao por um caminho melhor
+                continue;
+            }
+
+            status.explorando(n, abertos.size());
+            if (n.estado.ehMeta()) {
+                if (melhorSolucao == null || n.g < melhorSolucao.g) {
+                    melhorSolucao = n;
+                }
+                continue;
+            }
+
+            for (Nodo filho : sucessores(n)) { // somente os estados novos ou com custo menor
+                if (melhorSolucao != null && filho.f() >= melhorSolucao.g) {
+                    continue; // nao pode levar a uma solucao melhor
+                }
+                if (expandidos.contains(filho.estado)) {
+                    inconsistentes.add(filho);
+                } else {
+                    abertos.add(filho);
+                }
+            }
+        }
+    }
+
+    /**
+     * g + peso * h
+     */
+    private double chave(Nodo n) {
+        return n.g + peso * (n.f() - n.g);
+    }
+
+    private PriorityQueue<Nodo> novaListaAbertos(List<Nodo> nodos) {
+        PriorityQueue<Nodo> abertos = new PriorityQueue<Nodo>(Math.max(1, nodos.size()), new Comparator<Nodo>() {
+            public int compare(Nodo n1, Nodo n2) {
+                return Double.compare(chave(n1), chave(n2));
+            }
+        });
+        abertos.addAll(nodos);
+        return abertos;
+    }
+
+    public String toString() {
+        return "ARA* - busca heuristica anytime (peso inicial " + pesoInicial + ")";
+    }
+}
@@ -0,0 +1,134 @@
+package busca;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *   Algoritmos de Busca IDA* (A* com aprofundamento iterativo)
+ *
+ *   Faz buscas em profundidade limitadas por f(), em vez de limitadas pela
+ *   profundidade. Cada iteracao usa como limite o menor f() que passou do
+ *   limite da iteracao anterior. A memoria usada e so a do caminho atual,
+ *   ao custo de visitar os nodos de novo em cada iteracao.
+ *
+ *   Nao guarda os nodos visitados. Opcionalmente (ver setMaxTransposicoes),
+ *   para estados que implementam Assinatura, guarda somente a assinatura e o
+ *   custo g dos estados visitados em cada iteracao (ver FechadosCompacto): um
+ *   estado ja visitado na iteracao com custo menor ou igual nao e explorado
+ *   de novo, pois tudo o que ele alcanca dentro do limite ja foi explorado.
+ *   Essa tabela e limitada como a dos estados sem saida de
+ *   AEstrelaMemoriaLimitada: ela e esvaziada quando chega ao maximo de
+ *   estados, e os estados esquecidos sao explorados de novo.
+ */
+public class AEstrelaIterativo extends BuscaHeuristica {
+
+    private int proximoLimite;
+    private FechadosCompacto visitados; // assinaturas visitadas na iteracao atual
+    private int maxTransposicoes = 0; // 0: sem tabela de visitados
+    private int nroIteracoes;
+
+    /** busca sem mostrar status */
+    public AEstrelaIterativo() {
+    }
+
+    /**
+     * busca mostrando status
+     * @param ms shows status on console
+     */
+    public AEstrelaIterativo(MostraStatusConsole ms) {
+        super(ms);
+    }
+
+    /**
+     * numero de buscas em profundidade feitas na ultima busca
+     * @return number of iterations
+     */
+    public int getNroIteracoes() {
+        return nroIteracoes;
+    }
+
+    public int getMaxTransposicoes() {
+        return maxTransposicoes;
+    }
+
+    /**
+     * guarda as assinaturas dos estados visitados em cada iteracao, no
+     * maximo m estados (12 bytes cada) por vez
+     * @param m max number of states in the table, 0 (default) for no table
+     */
+    public void setMaxTransposicoes(int m) {
+        maxTransposicoes = Math.max(0, m);
+    }
+
+    public Nodo busca(Estado inicial) {
+        status.inicia();
+        nroIteracoes = 0;
+
+        Nodo raiz = new Nodo(inicial, null);
+        int limite = raiz.f();
+        while (!parar) {
+            nroIteracoes++;
+            proximoLimite = Integer.MAX_VALUE;
+            visitados = (usarFechado && maxTransposicoes > 0) ? new FechadosCompacto() : null;
+            Nodo n = buscaLimitada(raiz, limite, 0);
+            visitados = null;
+            if (n != null) {
+                status.termina(true);
+                return n;
+            }
+            if (proximoLimite == Integer.MAX_VALUE) { // nenhum nodo passou do limite, nao ha solucao
+                break;
+            }
+            limite = proximoLimite;
+        }
+        status.termina(false);
+        return null;
+    }
+
+    /**
+     * busca em profundidade que nao expande nodos com f maior que o limite
+     * @param n the node to explore
+     * @param limite max f allowed in this iteration
+     * @param abertos number of nodes waiting in the path (for status)
+     * @return a goal node or null
+     */
+    private Nodo buscaLimitada(Nodo n, int limite, int abertos) {
+        if (n.f() > limite) {
+            if (n.f() < proximoLimite) {
+                proximoLimite = n.f();
+            }
+            return null;
+        }
+        if (visitados != null && n.estado instanceof Assinatura) {
+            if (visitados.tamanho() >= maxTransposicoes) {
+                visitados.limpa(); // os estados esquecidos sao explorados de novo
+            }
+            if (!visitados.atualiza(((Assinatura)n.estado).assinatura(), n.g)) {
+                return null; // ja explorado nesta iteracao com custo menor ou igual
+            }
+        }
+
+        status.explorando(n, abertos);
+        if (n.estado.ehMeta()) {
+            return n;
+        }
+
+        List<Nodo> filhos = sucessores(n);
+        Collections.sort(filhos, getNodoComparatorF()); // os melhores filhos primeiro
+        int restantes = filhos.size();
+        for (Nodo filho : filhos) {
+            if (parar) {
+                break;
+            }
+            Nodo s = buscaLimitada(filho, limite, abertos + --restantes);
+            if (s != null) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    public String toString() {
+        return "IDA* - busca heuristica com aprofundamento iterativo";
+    }
+}
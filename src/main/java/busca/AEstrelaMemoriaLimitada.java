@@ -0,0 +1,341 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ *   Algoritmos de Busca SMA* (A* com memoria limitada)
+ *
+ *   Funciona como o A* enquanto o numero de nodos guardados esta abaixo do
+ *   limite. Quando a memoria acaba, a folha de pior f e esquecida e o seu f
+ *   e guardado no pai, que volta para abertos para gerar de novo os filhos
+ *   esquecidos quando ele for o melhor nodo. O f de cada nodo interno e o
+ *   menor f dos seus filhos (guardados ou esquecidos).
+ *
+ *   Um caminho que ocupa toda a memoria recebe f infinito, entao a busca so
+ *   encontra a solucao otima se o caminho ate ela couber no limite.
+ *
+ *   Nao usa a lista de fechados (os filhos esquecidos sao gerados de novo).
+ *   Para estados que implementam Assinatura, guarda a assinatura e o menor
+ *   custo g ja gerado de cada estado (ver FechadosCompacto) e descarta os
+ *   nodos gerados com custo maior, ou com o mesmo custo mas por outro pai.
+ *   Um filho esquecido e gerado de novo pelo mesmo pai e com o mesmo custo,
+ *   entao nao e descartado. Tambem guarda os estados que nao levam a uma
+ *   solucao, para nao gera-los de novo. Essas tabelas nao guardam nodos,
+ *   somente 12 bytes por estado, e tambem sao limitadas: a assinatura de um
+ *   nodo esquecido sai das tabelas de gerados junto com ele, e a tabela dos
+ *   estados sem saida e esvaziada quando chega a maxNodos estados.
+ *
+ *   (baseado em Russell, Efficient memory-bounded search methods, 1992)
+ */
+public class AEstrelaMemoriaLimitada extends BuscaHeuristica {
+
+    private static final int INFINITO = Integer.MAX_VALUE;
+
+    private int maxNodos;
+
+    private TreeSet<NodoMemoria> abertos;
+    private int nroGuardados;
+    private int nroCriados;
+    private NodoMemoria expandindo;
+
+    private FechadosCompacto gerados;   // menor custo g de cada assinatura gerada
+    private FechadosCompacto pares;     // custo g de cada par pai-filho que gerou o estado
+    private FechadosCompacto semSaida;  // custo g dos estados que nao levam a uma solucao
+
+    /**
+     * busca sem mostrar status
+     * @param maxNodos max number of nodes stored at once
+     */
+    public AEstrelaMemoriaLimitada(int maxNodos) {
+        setMaxNodos(maxNodos);
+    }
+
+    /**
+     * busca mostrando status
+     * @param maxNodos max number of nodes stored at once
+     * @param ms shows status on console
+     */
+    public AEstrelaMemoriaLimitada(int maxNodos, MostraStatusConsole ms) {
+        super(ms);
+        setMaxNodos(maxNodos);
+    }
+
+    public int getMaxNodos() {
+        return maxNodos;
+    }
+
+    public void setMaxNodos(int m) {
+        maxNodos = Math.max(2, m);
+    }
+
+    public Nodo busca(Estado inicial) {
+        status.inicia();
+
+        // ordenados pelo menor f, depois pelo mais profundo (o mais recente em caso de empate)
+        abertos = new TreeSet<NodoMemoria>(new Comparator<NodoMemoria>() {
+            public int compare(NodoMemoria n1, NodoMemoria n2) {
+                if (n1.f != n2.f)
+                    return n1.f < n2.f ? -1 : 1;
+                if (n1.nodo.profundidade != n2.nodo.profundidade)
+                    return n1.nodo.profundidade > n2.nodo.profundidade ? -1 : 1;
+                return Integer.compare(n2.id, n1.id);
+            }
+        });
+        nroCriados = 0;
+        gerados  = usarFechado ? new FechadosCompacto() : null;
+        pares    = usarFechado ? new FechadosCompacto() : null;
+        semSaida = usarFechado ? new FechadosCompacto() : null;
+
+        NodoMemoria raiz = new NodoMemoria(new Nodo(inicial, null), null);
+        raiz.f = raiz.nodo.f();
+        abertos.add(raiz);
+        nroGuardados = 1;
+
+        while (!parar && !abertos.isEmpty()) {
+            NodoMemoria melhor = abertos.first();
+            if (melhor.f == INFINITO) { // nao ha caminho que caiba na memoria
+                break;
+            }
+
+            status.explorando(melhor.nodo, abertos.size());
+            if (melhor.nodo.estado.ehMeta()) {
+                status.termina(true);
+                return melhor.nodo;
+            }
+
+            expande(melhor);
+        }
+        status.termina(false);
+        return null;
+    }
+
+    /**
+     * gera os filhos que nao estao em memoria, esquecendo as piores folhas
+     * se faltar espaco
+     */
+    private void expande(NodoMemoria pai) {
+        List<NodoMemoria> novos = new ArrayList<NodoMemoria>();
+        for (Nodo n : sucessores(pai.nodo)) {
+            if (!pai.temFilho(n.estado) && !ehSemSaida(n) && !ehRepetido(n)) {
+                NodoMemoria filho = new NodoMemoria(n, pai);
+                filho.f = Math.max(pai.f, n.f()); // f nunca diminui ao longo de um caminho
+                novos.add(filho);
+            }
+        }
+        Collections.sort(novos, abertos.comparator());
+
+        abertos.remove(pai);
+        pai.esquecido = INFINITO;
+        expandindo = pai;
+        int guardados = 0;
+        for (NodoMemoria filho : novos) {
+            if (nroGuardados >= maxNodos) {
+                NodoMemoria pior = getPiorFolha(pai);
+                // pelo menos um filho novo e guardado, mesmo que a folha esquecida seja melhor
+                if (pior == null || (pior.f <= filho.f && guardados > 0)) {
+                    // os filhos restantes (com f maior) ficam esquecidos
+                    pai.esquecido = Math.min(pai.esquecido, filho.f);
+                    for (int i = guardados; i < novos.size(); i++) {
+                        retiraGerado(novos.get(i).nodo);
+                    }
+                    break;
+                }
+                esquece(pior);
+            }
+            pai.filhos.add(filho);
+            abertos.add(filho);
+            nroGuardados++;
+            guardados++;
+        }
+        expandindo = null;
+
+        if (pai.filhos.isEmpty()) {
+            // sem filhos (beco sem saida) ou o caminho ocupa toda a memoria
+            fimDeCaminho(pai);
+        } else {
+            if (pai.esquecido != INFINITO) {
+                abertos.add(pai);
+            }
+            atualizaF(pai);
+        }
+    }
+
+    /**
+     * a folha de pior f (a mais rasa em caso de empate), sem contar a raiz
+     * e o nodo que esta sendo expandido
+     */
+    private NodoMemoria getPiorFolha(NodoMemoria expandindo) {
+        for (NodoMemoria n : abertos.descendingSet()) {
+            if (n.filhos.isEmpty() && n != expandindo && n.pai != null) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * remove o nodo da memoria, guardando o seu f no pai
+     */
+    private void esquece(NodoMemoria n) {
+        abertos.remove(n);
+        nroGuardados--;
+        retiraGerado(n.nodo);
+
+        NodoMemoria pai = n.pai;
+        pai.filhos.remove(n);
+        if (n.f < pai.esquecido) {
+            pai.esquecido = n.f;
+        }
+        if (pai == expandindo) { // o f do pai e atualizado no final da expansao
+            return;
+        }
+        if (pai.filhos.isEmpty() && pai.esquecido == INFINITO) { // so tinha filhos sem solucao
+            fimDeCaminho(pai);
+        } else {
+            if (pai.esquecido != INFINITO && !abertos.contains(pai)) {
+                abertos.add(pai); // o pai tem que gerar o filho de novo
+            }
+            atualizaF(pai);
+        }
+    }
+
+    /**
+     * o nodo volta a ser uma folha sem solucao: fica em abertos com f
+     * infinito, para ser o primeiro a ser esquecido, e nao e gerado de novo
+     */
+    private void fimDeCaminho(NodoMemoria n) {
+        if (semSaida != null && n.nodo.estado instanceof Assinatura) {
+            if (semSaida.tamanho() >= maxNodos) {
+                semSaida.limpa(); // os estados sem saida sao encontrados de novo se forem gerados
+            }
+            semSaida.atualiza(((Assinatura)n.nodo.estado).assinatura(), n.nodo.g);
+        }
+        n.esquecido = INFINITO;
+        alteraF(n, INFINITO);
+        abertos.add(n);
+        atualizaF(n.pai);
+    }
+
+    /**
+     * se o estado ja foi gerado com custo menor ou igual e nao leva a uma solucao
+     */
+    private boolean ehSemSaida(Nodo n) {
+        if (semSaida == null || !(n.estado instanceof Assinatura)) {
+            return false;
+        }
+        int custo = semSaida.custo(((Assinatura)n.estado).assinatura());
+        return custo != -1 && custo <= n.g;
+    }
+
+    /**
+     * se o estado ja foi gerado com custo menor, ou com o mesmo custo por
+     * outro pai
+     */
+    private boolean ehRepetido(Nodo n) {
+        if (gerados == null || !(n.estado instanceof Assinatura) || !(n.pai.estado instanceof Assinatura)) {
+            return false;
+        }
+        long assinatura = ((Assinatura)n.estado).assinatura();
+        long par = getPar(n, assinatura);
+        int custo = gerados.custo(assinatura);
+        if (custo != -1 && (custo < n.g || (custo == n.g && pares.custo(par) != n.g))) {
+            return true;
+        }
+        gerados.atualiza(assinatura, n.g);
+        pares.atualiza(par, n.g);
+        return false;
+    }
+
+    /**
+     * retira o estado das tabelas de gerados quando o nodo sai da memoria
+     * (ou nao chega a ser guardado), se o custo guardado e o do nodo
+     */
+    private void retiraGerado(Nodo n) {
+        if (gerados == null || !(n.estado instanceof Assinatura) || !(n.pai.estado instanceof Assinatura)) {
+            return;
+        }
+        long assinatura = ((Assinatura)n.estado).assinatura();
+        if (gerados.custo(assinatura) == n.g) {
+            gerados.remove(assinatura);
+        }
+        long par = getPar(n, assinatura);
+        if (pares.custo(par) == n.g) {
+            pares.remove(par);
+        }
+    }
+
+    private static long getPar(Nodo n, long assinatura) {
+        return assinatura ^ (((Assinatura)n.pai.estado).assinatura() * 0xc2b2ae3d27d4eb4fL);
+    }
+
+    /**
+     * numero de assinaturas guardadas para descartar estados repetidos e
+     * sem saida, limitado por 3 * maxNodos
+     * @return number of signatures in the three tables
+     */
+    public int getTamanhoTabelas() {
+        return gerados == null ? 0 : gerados.tamanho() + pares.tamanho() + semSaida.tamanho();
+    }
+
+    /**
+     * f de um nodo interno e o menor f dos seus filhos guardados ou esquecidos,
+     * a alteracao e propagada para os ascendentes
+     */
+    private void atualizaF(NodoMemoria n) {
+        while (n != null && (!n.filhos.isEmpty() || n.esquecido != INFINITO)) {
+            int menor = n.esquecido;
+            for (NodoMemoria filho : n.filhos) {
+                if (filho.f < menor) {
+                    menor = filho.f;
+                }
+            }
+            if (menor == n.f) {
+                return;
+            }
+            alteraF(n, menor);
+            n = n.pai;
+        }
+    }
+
+    /**
+     * altera o f mantendo a ordem de abertos
+     */
+    private void alteraF(NodoMemoria n, int f) {
+        boolean emAbertos = abertos.remove(n);
+        n.f = f;
+        if (emAbertos) {
+            abertos.add(n);
+        }
+    }
+
+    public String toString() {
+        return "SMA* - busca heuristica com memoria limitada (" + maxNodos + " nodos)";
+    }
+
+    private class NodoMemoria {
+        final Nodo nodo;
+        final NodoMemoria pai;
+        final int id = nroCriados++;
+        final List<NodoMemoria> filhos = new ArrayList<NodoMemoria>(); // filhos em memoria
+        int f;
+        int esquecido = INFINITO; // menor f dos filhos esquecidos
+
+        NodoMemoria(Nodo nodo, NodoMemoria pai) {
+            this.nodo = nodo;
+            this.pai = pai;
+        }
+
+        boolean temFilho(Estado e) {
+            for (NodoMemoria filho : filhos) {
+                if (filho.nodo.estado.equals(e)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
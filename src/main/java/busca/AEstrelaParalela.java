@@ -0,0 +1,253 @@
+package busca;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *   Algoritmos de Busca A* paralelo com distribuicao por hash (HDA*)
+ *
+ *   Cada estado pertence a um unico trabalhador, escolhido pelo hash do
+ *   estado. Cada trabalhador tem suas proprias listas de abertos e fechados
+ *   e recebe os nodos que lhe pertencem por uma caixa de entrada. Como um
+ *   estado sempre vai para o mesmo dono, a deteccao de repetidos continua
+ *   local e nao precisa de sincronizacao.
+ *
+ *   A busca termina quando nao ha mais nodos pendentes (em abertos ou em
+ *   transito) com f menor que o custo da melhor solucao encontrada. Um
+ *   trabalhador sem nodos fica bloqueado ate receber um nodo ou ate a busca
+ *   terminar.
+ */
+public class AEstrelaParalela extends BuscaHeuristica {
+
+    private int nroTrabalhadores;
+
+    private Trabalhador[] trabalhadores;
+    // nodos em abertos ou em transito entre trabalhadores
+    private AtomicLong pendentes;
+    private AtomicInteger visitados;
+    private AtomicReference<Nodo> melhorSolucao;
+
+    /**
+     * busca sem mostrar status, com um trabalhador por processador
+     */
+    public AEstrelaParalela() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * busca sem mostrar status
+     * @param nroTrabalhadores number of worker threads
+     */
+    public AEstrelaParalela(int nroTrabalhadores) {
+        setNroTrabalhadores(nroTrabalhadores);
+    }
+
+    /**
+     * busca mostrando status
+     * @param nroTrabalhadores number of worker threads
+     * @param ms shows status on console
+     */
+    public AEstrelaParalela(int nroTrabalhadores, MostraStatusConsole ms) {
+        super(ms);
+        setNroTrabalhadores(nroTrabalhadores);
+    }
+
+    public int getNroTrabalhadores() {
+        return nroTrabalhadores;
+    }
+
+    public void setNroTrabalhadores(int n) {
+        nroTrabalhadores = Math.max(1, n);
+    }
+
+    public Nodo busca(Estado inicial) {
+        status.inicia();
+
+        pendentes = new AtomicLong(0);
+        visitados = new AtomicInteger(0);
+        melhorSolucao = new AtomicReference<Nodo>(null);
+
+        trabalhadores = new Trabalhador[nroTrabalhadores];
+        for (int i = 0; i < nroTrabalhadores; i++) {
+            trabalhadores[i] = new Trabalhador(i);
+        }
+
+        envia(new Nodo(inicial, null));
+
+        for (Trabalhador t : trabalhadores) {
+            t.start();
+        }
+        try {
+            for (Trabalhador t : trabalhadores) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            parar = true;
+            Thread.currentThread().interrupt();
+        }
+
+        status.nroVisitados = visitados.get();
+        // cada trabalhador guarda os seus valores, somados aqui depois do join
+        status.profundidadeMax = 0;
+        status.tamAbertos = 0;
+        for (Trabalhador t : trabalhadores) {
+            status.profundidadeMax = Math.max(status.profundidadeMax, t.profundidadeMax);
+            status.tamAbertos += t.tamAbertos;
+        }
+        Nodo solucao = melhorSolucao.get();
+        if (solucao != null) {
+            status.custoTotal = solucao.estado.custoAcumulado();
+        }
+        status.termina(solucao != null);
+        return solucao;
+    }
+
+    /**
+     * envia o nodo para o trabalhador dono do seu estado
+     */
+    private void envia(Nodo n) {
+        pendentes.incrementAndGet();
+        Trabalhador t = trabalhadores[dono(n.estado)];
+        t.caixaEntrada.add(n);
+        LockSupport.unpark(t);
+    }
+
+    /**
+     * o nodo deixou de ser pendente, se era o ultimo a busca terminou
+     */
+    private void concluiPendente() {
+        if (pendentes.decrementAndGet() == 0) {
+            acordaTodos();
+        }
+    }
+
+    private void acordaTodos() {
+        for (Trabalhador t : trabalhadores) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    private int dono(Estado e) {
+        int h = e.hashCode();
+        h ^= (h >>> 16); // espalha os bits altos, o hash pode ter pouca entropia nos bits baixos
+        return (h & 0x7fffffff) % nroTrabalhadores;
+    }
+
+    /**
+     * custo da melhor solucao ja encontrada (ou infinito)
+     */
+    private int limite() {
+        Nodo s = melhorSolucao.get();
+        return s == null ? Integer.MAX_VALUE : s.g;
+    }
+
+    private boolean deveParar() {
+        if (getMaxVisitados() > 0 && visitados.get() > getMaxVisitados())
+            parar = true;
+
+        if (getMaxTempo() > 0 && status.getTempoDecorrido() > getMaxTempo())
+            parar = true;
+
+        return parar;
+    }
+
+    /**
+     * registra a solucao se ela for melhor que a atual
+     */
+    private void novaSolucao(Nodo n) {
+        Nodo atual = melhorSolucao.get();
+        while ((atual == null || n.g < atual.g) && !melhorSolucao.compareAndSet(atual, n)) {
+            atual = melhorSolucao.get();
+        }
+    }
+
+    private class Trabalhador extends Thread {
+
+        final Queue<Nodo> caixaEntrada = new ConcurrentLinkedQueue<Nodo>();
+        final Queue<Nodo> abertos = new PriorityQueue<Nodo>(100, getNodoComparatorF()); // lista ordenada por f()
+        final Map<Estado,Integer> fechados = new HashMap<Estado,Integer>(); // mapeia o estado para um custo g
+        final FechadosCompacto fechadosCompactos = usarFechadoCompacto ? new FechadosCompacto() : null;
+        // status deste trabalhador, sem sincronizacao (ver busca)
+        int profundidadeMax = 0;
+        int tamAbertos = 0;
+
+        Trabalhador(int id) {
+            super("AEstrelaParalela-" + id);
+            setDaemon(true);
+        }
+
+        public void run() {
+            while (pendentes.get() > 0 && !deveParar()) {
+                recebe();
+
+                Nodo melhor = abertos.poll();
+                if (melhor == null) {
+                    // acordado por envia, ou por concluiPendente quando a busca termina
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                if (melhor.f() < limite()) {
+                    visitados.incrementAndGet();
+                    if (melhor.getProfundidade() > profundidadeMax) {
+                        profundidadeMax = melhor.getProfundidade();
+                    }
+                    tamAbertos = abertos.size();
+
+                    if (melhor.estado.ehMeta()) {
+                        novaSolucao(melhor);
+                    } else {
+                        for (Estado e : melhor.estado.sucessores()) {
+                            envia(new Nodo(e, melhor));
+                        }
+                    }
+                }
+                // o nodo so deixa de ser pendente depois que seus filhos ja foram enviados
+                concluiPendente();
+            }
+            tamAbertos = abertos.size();
+            // os outros trabalhadores podem estar bloqueados se a busca foi parada
+            acordaTodos();
+        }
+
+        /**
+         * move os nodos recebidos para abertos, descartando os repetidos
+         */
+        private void recebe() {
+            Nodo n;
+            while ((n = caixaEntrada.poll()) != null) {
+                if (ehNovo(n)) {
+                    abertos.add(n);
+                } else {
+                    concluiPendente();
+                }
+            }
+        }
+
+        /**
+         * registra o nodo em fechados se ele nao esta la ou tem custo menor
+         */
+        private boolean ehNovo(Nodo n) {
+            if (fechadosCompactos != null && n.estado instanceof Assinatura)
+                return fechadosCompactos.atualiza(((Assinatura)n.estado).assinatura(), n.g);
+
+            Integer custo = fechados.get(n.estado);
+            if (custo == null || n.g < custo.intValue()) { // nao esta em fechados ou tem custo menor
+                fechados.put(n.estado, n.g);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public String toString() {
+        return "HDA* - busca heuristica paralela (" + nroTrabalhadores + " trabalhadores)";
+    }
+}
@@ -0,0 +1,18 @@
+package busca;
+
+/**
+ * Interface para estados que tem uma assinatura (impressao digital) de 64 bits.
+ *
+ * Estados iguais (equals) devem ter a mesma assinatura. Estados diferentes
+ * com a mesma assinatura sao tratados como repetidos pelos fechados
+ * compactos, entao a assinatura deve ser bem distribuida.
+ */
+public interface Assinatura {
+
+    /**
+     * assinatura do estado
+     * @return 64-bit fingerprint of the state
+     */
+    public long assinatura();
+
+}
@@ -1,9 +1,15 @@
 package busca;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 /**
  *   Algoritmos de Busca (geral, qquer problema)
@@ -12,9 +18,11 @@ import java.util.Map;
  */
 public abstract class Busca {
 
-	protected boolean parar = false;
+	protected volatile boolean parar = false;
     protected boolean podar = true;
     protected boolean usarFechado = true;
+    protected boolean usarFechadoCompacto = false;
+    protected boolean usarNodoCompacto = false;
     
     private int maxVisitados = -1;
     private int maxAbertos = -1;
@@ -24,6 +32,16 @@ public abstract class Busca {
     protected MostraStatusConsole mstatus = null; // a classe que mostra o stauts (view)
 
     private Map<Estado,Integer> fechados = null; // mapeia o estado para um custo g
+    private FechadosCompacto fechadosCompactos = null; // mapeia a assinatura do estado para um custo g
+
+    private Supplier<Fronteira> fronteira = null; // null para a fronteira padrao de cada busca
+
+    private PontoDeControle pontoDeControle = null;
+    private Nodo raiz = null; // os nodos do ponto de controle sao refeitos a partir dela
+
+    // com nodos compactados, os ultimos nodos refeitos ficam com o estado (ver materializa)
+    static final int REFEITOS_GUARDADOS = 64;
+    private final ArrayDeque<Nodo> refeitos = new ArrayDeque<Nodo>();
     
     /** busca sem mostrar status */
     public Busca() {
@@ -39,8 +57,159 @@ public abstract class Busca {
     
     protected void initFechados() {
     	fechados = new HashMap<Estado,Integer>();
+    	fechadosCompactos = usarFechadoCompacto ? new FechadosCompacto() : null;
+    	initRefeitos();
     }
     
+    /**
+     * retira de fechados o estado de um nodo descartado, se o custo guardado
+     * e o do nodo (um nodo anterior do mesmo estado com custo menor fica)
+     * @param n a node generated by iteradorSucessores or sucessores
+     */
+    protected void retiraFechado(Nodo n) {
+    	if (usarFechado && fechadosCompactos != null && n.estado instanceof Assinatura) {
+    		long assinatura = ((Assinatura)n.estado).assinatura();
+    		if (fechadosCompactos.custo(assinatura) == n.g) {
+    			fechadosCompactos.remove(assinatura);
+    		}
+    	} else if (fechados != null) {
+    		Integer custo = fechados.get(n.estado);
+    		if (custo != null && custo.intValue() == n.g) {
+    			fechados.remove(n.estado);
+    		}
+    	}
+    }
+
+    protected void initRefeitos() {
+    	refeitos.clear();
+    }
+
+    /**
+     * refaz o estado de um nodo compactado para ele ser explorado. Os estados
+     * refeitos dos pais compactados tambem ficam nos nodos, entao os irmaos e
+     * primos do nodo sao refeitos a partir deles e nao desde a raiz. Somente os
+     * ultimos REFEITOS_GUARDADOS nodos refeitos ficam com o estado, o mais
+     * antigo e compactado de novo.
+     * @param n a node taken from the frontier
+     */
+    protected void materializa(Nodo n) {
+    	if (!usarNodoCompacto && n.estado != null) {
+    		return;
+    	}
+    	ArrayDeque<Nodo> caminho = new ArrayDeque<Nodo>();
+    	for (Nodo m = n; m.estado == null; m = m.pai) {
+    		caminho.push(m);
+    	}
+    	if (caminho.isEmpty() && n.pai != null) {
+    		refeitos.addLast(n); // nao foi compactado, e compactado depois de explorado
+    	}
+    	while (!caminho.isEmpty()) {
+    		Nodo m = caminho.pop();
+    		m.estado = ((Reconstrutivel)m.pai.estado).aplica(m.acao);
+    		refeitos.addLast(m);
+    	}
+    	while (refeitos.size() > REFEITOS_GUARDADOS) {
+    		Nodo m = refeitos.pollFirst();
+    		if (podeCompactar()) {
+    			m.compacta();
+    		}
+    	}
+    }
+
+    /**
+     * Troca a lista de abertos usada pelas buscas que ordenam os nodos
+     * (A* e largura), por exemplo uma FronteiraOrdenada quando os custos
+     * nao sao inteiros pequenos e nao negativos
+     * @param f creates a new frontier for each search, null for the default one
+     */
+    public void setFronteira(Supplier<Fronteira> f) {
+    	fronteira = f;
+    }
+
+    /**
+     * @param padrao the frontier of this search when none was set
+     * @return a new, empty, frontier
+     */
+    protected Fronteira novaFronteira(Supplier<Fronteira> padrao) {
+    	return fronteira != null ? fronteira.get() : padrao.get();
+    }
+
+    /**
+     * Grava periodicamente um ponto de controle das buscas que usam uma
+     * Fronteira (A* e largura) e, se o arquivo ja existe, retoma a busca
+     * dele. Os estados devem implementar Reconstrutivel e Assinatura, e os
+     * fechados passam a ser compactos.
+     * @param p the checkpoint, null to disable
+     */
+    public void setPontoDeControle(PontoDeControle p) {
+    	pontoDeControle = p;
+    }
+
+    /**
+     * insere em abertos o nodo inicial ou, se ha um ponto de controle
+     * gravado, os nodos abertos dele (depois de initFechados)
+     * @param inicial the initial state
+     * @param abertos an empty frontier
+     * @return the initial node
+     */
+    protected Nodo iniciaAbertos(Estado inicial, Fronteira abertos) {
+    	raiz = new Nodo(inicial, null);
+    	if (pontoDeControle != null) {
+    		usarFechadoCompacto = true;
+    		try {
+    			fechadosCompactos = pontoDeControle.retoma(raiz, status, abertos);
+    		} catch (IOException e) {
+    			throw new UncheckedIOException("Erro lendo o ponto de controle " + pontoDeControle.getArquivo(), e);
+    		}
+    		if (fechadosCompactos != null) {
+    			return raiz;
+    		}
+    		fechadosCompactos = new FechadosCompacto();
+    	}
+    	abertos.insere(raiz);
+    	return raiz;
+    }
+
+    /**
+     * copia a busca para o ponto de controle se ja passou o intervalo, a
+     * copia e gravada por outra thread
+     * @param abertos the frontier
+     */
+    protected void verificaPontoDeControle(Fronteira abertos) {
+    	if (pontoDeControle != null && pontoDeControle.deveGravar()) {
+    		gravaPontoDeControle(abertos);
+    	}
+    }
+
+    private void gravaPontoDeControle(Fronteira abertos) {
+    	pontoDeControle.grava(status, fechadosCompactos.copia(), abertos.copia(),
+    			raiz.estado instanceof DadosGlobais ? ((DadosGlobais)raiz.estado).copiaDadosGlobais() : null);
+    }
+
+    /**
+     * no fim da busca, o ponto de controle e apagado se a busca terminou, ou
+     * gravado se ela foi parada antes (por exemplo pelo tempo maximo)
+     * @param abertos the frontier
+     * @param terminou true if the search is complete
+     */
+    protected void terminaPontoDeControle(Fronteira abertos, boolean terminou) {
+    	if (pontoDeControle != null) {
+    		if (!terminou) {
+    			pontoDeControle.termina(false);
+    			gravaPontoDeControle(abertos);
+    		}
+    		pontoDeControle.termina(terminou);
+    	}
+    }
+
+    /**
+     * se os nodos podem ser compactados: nao enquanto o ponto de controle
+     * grava os nodos copiados
+     */
+    protected boolean podeCompactar() {
+    	return usarNodoCompacto && (pontoDeControle == null || !pontoDeControle.gravando());
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -81,6 +250,26 @@ public abstract class Busca {
     public void usarFechados(boolean b) {
     	usarFechado = b;
     }
+
+    /**
+     * Guarda em fechados somente a assinatura e o custo dos estados que
+     * implementam Assinatura, os estados visitados nao ficam em memoria
+     * @param b true to use compact closed lists
+     */
+    public void usarFechadosCompactos(boolean b) {
+    	usarFechadoCompacto = b;
+    }
+    
+    /**
+     * Os nodos em abertos guardam somente a acao que gerou o estado, e o
+     * estado e refeito quando o nodo e explorado (ver Reconstrutivel). Usado
+     * pelo A* e pela busca em largura. Os fechados guardam os estados, entao
+     * deve ser usado com fechados compactos.
+     * @param b true to compact the nodes of states that implement Reconstrutivel
+     */
+    public void usarNodosCompactos(boolean b) {
+    	usarNodoCompacto = b;
+    }
     
     /**
      * Numero maximo permitido de nodos Abertos
@@ -136,7 +325,58 @@ public abstract class Busca {
      * @return the list of nodes
      */
     public List<Nodo> sucessores(Nodo pai) {
+    	verificaLimites();
+
+    	return soNovos(pai.estado.sucessores(),pai); // lista de todos os sucessores
+    }
+
+    /**
+     * gera os sucessores novos do nodo sob demanda, um a um. Se o estado
+     * implementa SucessoresIncrementais, os estados que nao forem pedidos
+     * nao sao criados.
+     * @param pai a node
+     * @return iterator of the new nodes, in the same order of sucessores(pai)
+     */
+    public Iterator<Nodo> iteradorSucessores(final Nodo pai) {
+    	final Iterator<Estado> estados = iteradorEstados(pai);
+
+    	return new Iterator<Nodo>() {
+    		private Nodo proximo = null;
+
+    		public boolean hasNext() {
+    			while (proximo == null && estados.hasNext()) {
+    				proximo = soNovo(estados.next(), pai);
+    			}
+    			return proximo != null;
+    		}
 
+    		public Nodo next() {
+    			if (!hasNext()) {
+    				throw new NoSuchElementException();
+    			}
+    			Nodo n = proximo;
+    			proximo = null;
+    			return n;
+    		}
+    	};
+    }
+
+    /**
+     * gera os estados sucessores do nodo sob demanda, sem consultar
+     * fechados, para as buscas que detectam os repetidos de outra forma
+     * @param pai a node
+     * @return iterator of all successor states
+     */
+    protected Iterator<Estado> iteradorEstados(Nodo pai) {
+    	verificaLimites();
+
+    	if (pai.estado instanceof SucessoresIncrementais) {
+    		return ((SucessoresIncrementais)pai.estado).iteradorSucessores();
+    	}
+    	return pai.estado.sucessores().iterator();
+    }
+
+    private void verificaLimites() {
     	if (maxVisitados > 0 && status.nroVisitados > maxVisitados)
         	para();
 
@@ -145,8 +385,6 @@ public abstract class Busca {
     	
     	if (maxTempo > 0 && status.getTempoDecorrido() > maxTempo)
     		para();
-
-    	return soNovos(pai.estado.sucessores(),pai); // lista de todos os sucessores
     }
 
     /**
@@ -172,21 +410,38 @@ public abstract class Busca {
     private List<Nodo> soNovos(List<Estado> estados, Nodo pai) {
         List<Nodo> sucNodo   = new LinkedList<Nodo>(); // a lista de sucessores novos
         for (Estado e: estados) {
-            Nodo filho = new Nodo( e, pai);
-            if (podar) {
-                if (usarFechado && fechados != null) {
-                    Integer custo = fechados.get(e);
-                    if (custo == null || filho.g < custo.intValue()) { // nao esta em fechados ou tem custo menor
-                        sucNodo.add(filho);
-                        fechados.put(e, filho.g);
-                    }
-                } else if (filho.ehDescendenteNovo(pai)) { // poda os filhos que tem um ascensor igual a ele
-                    sucNodo.add(filho);
-                }
-            } else {
+            Nodo filho = soNovo(e, pai);
+            if (filho != null) {
                 sucNodo.add(filho);
             }
         }
         return sucNodo;
     }
+
+    /**
+     * Return the node of the state if it is new
+     * @param e a state
+     * @param pai a node
+     * @return the new node or null if it is pruned
+     */
+    private Nodo soNovo(Estado e, Nodo pai) {
+        Nodo filho = new Nodo( e, pai);
+        if (podar) {
+            if (usarFechado && fechadosCompactos != null && e instanceof Assinatura) {
+                if (fechadosCompactos.atualiza(((Assinatura)e).assinatura(), filho.g)) { // nao esta em fechados ou tem custo menor
+                    return filho;
+                }
+            } else if (usarFechado && fechados != null) {
+                Integer custo = fechados.get(e);
+                if (custo == null || filho.g < custo.intValue()) { // nao esta em fechados ou tem custo menor
+                    fechados.put(e, filho.g);
+                    return filho;
+                }
+            } else if (filho.ehDescendenteNovo(pai)) { // poda os filhos que tem um ascensor igual a ele
+                return filho;
+            }
+            return null;
+        }
+        return filho;
+    }
 }
@@ -0,0 +1,194 @@
+package busca;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *   Busca exaustiva paralela com roubo de trabalho (fork/join)
+ *
+ *   Percorre todo o espaco de estados em profundidade, dividindo as
+ *   subarvores entre as threads de um ForkJoinPool. Cada tarefa expande os
+ *   nodos da sua pilha e, enquanto a fila da sua thread tem poucas tarefas,
+ *   separa os filhos como novas tarefas, que as threads ociosas roubam.
+ *   Os estados repetidos sao detectados como em Busca.soNovo (podar,
+ *   usarFechados e usarFechadosCompactos), com uma lista de fechados
+ *   compartilhada (FechadosConcorrente se for compacta e os estados tem
+ *   Assinatura) ou, sem fechados, comparando o estado com os seus ascensores.
+ *
+ *   Serve para enumerar todas as solucoes, quando ehMeta registra a
+ *   solucao e retorna false: ehMeta e chamado por varias threads ao mesmo
+ *   tempo. Se ehMeta retornar true, a busca para e retorna esse nodo, que
+ *   nao e necessariamente o de menor custo.
+ *
+ *   A ordem em que os estados sao visitados depende das threads, entao
+ *   estados iguais (pela assinatura ou por equals) devem ter os mesmos
+ *   sucessores para que as solucoes nao dependam dessa ordem.
+ */
+public class BuscaExaustivaParalela extends Busca {
+
+    // os filhos sao separados como tarefas enquanto a fila da thread tem menos tarefas que isto
+    private static final int TAREFAS_NA_FILA = 2;
+
+    private int nroThreads;
+
+    private FechadosConcorrente fechadosConcorrentes;
+    private ConcurrentHashMap<Estado,Integer> fechadosEstados;
+    private AtomicInteger visitados;
+    private AtomicReference<Nodo> solucao;
+
+    /**
+     * busca sem mostrar status, com uma thread por processador
+     */
+    public BuscaExaustivaParalela() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * busca sem mostrar status
+     * @param nroThreads number of threads of the pool
+     */
+    public BuscaExaustivaParalela(int nroThreads) {
+        setNroThreads(nroThreads);
+    }
+
+    /**
+     * busca mostrando status
+     * @param nroThreads number of threads of the pool
+     * @param ms shows status on console
+     */
+    public BuscaExaustivaParalela(int nroThreads, MostraStatusConsole ms) {
+        super(ms);
+        setNroThreads(nroThreads);
+    }
+
+    public int getNroThreads() {
+        return nroThreads;
+    }
+
+    public void setNroThreads(int n) {
+        nroThreads = Math.max(1, n);
+    }
+
+    public Nodo busca(Estado inicial) {
+        status.inicia();
+
+        boolean compacto = usarFechado && usarFechadoCompacto && inicial instanceof Assinatura;
+        fechadosConcorrentes = compacto ? new FechadosConcorrente() : null;
+        fechadosEstados = (usarFechado && !compacto) ? new ConcurrentHashMap<Estado,Integer>() : null;
+        visitados = new AtomicInteger(0);
+        solucao = new AtomicReference<Nodo>(null);
+
+        Nodo raiz = new Nodo(inicial, null);
+        ehNovo(raiz);
+        ForkJoinPool pool = new ForkJoinPool(nroThreads);
+        try {
+            // cada tarefa retorna a profundidade maxima da sua subarvore
+            status.profundidadeMax = Math.max(status.profundidadeMax, pool.invoke(new Expande(raiz)));
+        } finally {
+            pool.shutdown();
+        }
+
+        status.nroVisitados = visitados.get();
+        Nodo s = solucao.get();
+        if (s != null) {
+            status.custoTotal = s.estado.custoAcumulado();
+        }
+        status.termina(s != null);
+        return s;
+    }
+
+    private boolean deveParar() {
+        if (getMaxVisitados() > 0 && visitados.get() > getMaxVisitados())
+            parar = true;
+
+        if (getMaxTempo() > 0 && status.getTempoDecorrido() > getMaxTempo())
+            parar = true;
+
+        return parar;
+    }
+
+    /**
+     * registra o nodo em fechados se ele nao esta la ou tem custo menor
+     * (sem fechados, verifica se nenhum ascensor tem o mesmo estado)
+     */
+    private boolean ehNovo(Nodo n) {
+        if (!podar)
+            return true;
+        if (fechadosConcorrentes != null)
+            return fechadosConcorrentes.atualiza(((Assinatura)n.estado).assinatura(), n.g);
+        if (fechadosEstados == null)
+            return n.ehDescendenteNovo(n.pai);
+
+        final boolean[] novo = { false };
+        fechadosEstados.compute(n.estado, (e, custo) -> {
+            if (custo == null || n.g < custo.intValue()) { // nao esta em fechados ou tem custo menor
+                novo[0] = true;
+                return n.g;
+            }
+            return custo;
+        });
+        return novo[0];
+    }
+
+    /**
+     * expande uma subarvore, separando partes dela para outras threads, e
+     * retorna a profundidade maxima dos nodos visitados nela
+     */
+    private class Expande extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Nodo inicio;
+
+        Expande(Nodo inicio) {
+            this.inicio = inicio;
+        }
+
+        protected Integer compute() {
+            ArrayDeque<Nodo> pilha = new ArrayDeque<Nodo>();
+            List<Expande> separadas = new ArrayList<Expande>();
+            pilha.push(inicio);
+            int profundidadeMax = 0;
+
+            while (!pilha.isEmpty() && !deveParar()) {
+                Nodo n = pilha.pop();
+                visitados.incrementAndGet();
+                profundidadeMax = Math.max(profundidadeMax, n.getProfundidade());
+
+                if (n.estado.ehMeta()) {
+                    solucao.compareAndSet(null, n);
+                    parar = true;
+                    break;
+                }
+
+                for (Estado e : n.estado.sucessores()) {
+                    Nodo filho = new Nodo(e, n);
+                    if (!ehNovo(filho)) {
+                        continue;
+                    }
+                    if (getSurplusQueuedTaskCount() < TAREFAS_NA_FILA) {
+                        Expande t = new Expande(filho);
+                        t.fork();
+                        separadas.add(t);
+                    } else {
+                        pilha.push(filho);
+                    }
+                }
+            }
+
+            for (Expande t : separadas) {
+                profundidadeMax = Math.max(profundidadeMax, t.join());
+            }
+            return profundidadeMax;
+        }
+    }
+
+    public String toString() {
+        return "Busca exaustiva paralela (" + nroThreads + " threads)";
+    }
+}
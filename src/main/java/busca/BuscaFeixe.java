@@ -0,0 +1,130 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ *   Algoritmos de Busca em feixe (beam search)
+ *
+ *   Expande a arvore por profundidade (camada a camada), mas mantem somente
+ *   os melhores nodos de cada camada, por f() ou por g(). A memoria e o
+ *   tempo ficam limitados pela largura do feixe, mas a busca nao e completa
+ *   nem otima: um caminho descartado nao volta a ser considerado.
+ *
+ *   Os sucessores sao gerados sob demanda (ver SucessoresIncrementais) e
+ *   guardados num heap do tamanho do feixe, entao a proxima camada inteira
+ *   nunca fica em memoria. Os sucessores descartados do feixe tambem saem
+ *   da lista de fechados, que fica somente com os nodos que entraram no
+ *   feixe (no maximo a largura vezes a profundidade).
+ */
+public class BuscaFeixe extends BuscaHeuristica {
+
+    private int largura;
+    private boolean ordenaPorF;
+
+    /**
+     * busca sem mostrar status, feixe ordenado por f()
+     * @param largura number of nodes kept in each depth
+     */
+    public BuscaFeixe(int largura) {
+        this(largura, true);
+    }
+
+    /**
+     * busca sem mostrar status
+     * @param largura number of nodes kept in each depth
+     * @param ordenaPorF true to keep the best nodes by f(), false by g()
+     */
+    public BuscaFeixe(int largura, boolean ordenaPorF) {
+        setLargura(largura);
+        this.ordenaPorF = ordenaPorF;
+    }
+
+    /**
+     * busca mostrando status
+     * @param largura number of nodes kept in each depth
+     * @param ordenaPorF true to keep the best nodes by f(), false by g()
+     * @param ms shows status on console
+     */
+    public BuscaFeixe(int largura, boolean ordenaPorF, MostraStatusConsole ms) {
+        super(ms);
+        setLargura(largura);
+        this.ordenaPorF = ordenaPorF;
+    }
+
+    public int getLargura() {
+        return largura;
+    }
+
+    public void setLargura(int l) {
+        largura = Math.max(1, l);
+    }
+
+    public Nodo busca(Estado inicial) {
+        status.inicia();
+        initFechados();
+
+        // a ordenacao e estavel: em caso de empate fica o nodo gerado antes
+        final Comparator<Nodo> comparador = ordenaPorF ? getNodoComparatorF() : Comparator.<Nodo>naturalOrder();
+        Comparator<Candidato> melhorPrimeiro = new Comparator<Candidato>() {
+            public int compare(Candidato c1, Candidato c2) {
+                int r = comparador.compare(c1.nodo, c2.nodo);
+                return r != 0 ? r : Long.compare(c1.ordem, c2.ordem);
+            }
+        };
+
+        List<Nodo> camada = new ArrayList<Nodo>();
+        camada.add(new Nodo(inicial, null));
+
+        while (!parar && !camada.isEmpty()) {
+            // os sucessores sao gerados um a um e somente os melhores ficam em memoria
+            PriorityQueue<Candidato> proxima = new PriorityQueue<Candidato>(largura + 1, Collections.reverseOrder(melhorPrimeiro));
+            long ordem = 0;
+            for (Nodo n : camada) {
+                status.explorando(n, camada.size() + proxima.size());
+                if (n.estado.ehMeta()) {
+                    status.termina(true);
+                    return n;
+                }
+                Iterator<Nodo> sucessores = iteradorSucessores(n);
+                while (sucessores.hasNext()) {
+                    proxima.add(new Candidato(sucessores.next(), ordem++));
+                    if (proxima.size() > largura) {
+                        retiraFechado(proxima.remove().nodo); // o pior
+                    }
+                }
+                if (parar) {
+                    break;
+                }
+            }
+
+            List<Candidato> melhores = new ArrayList<Candidato>(proxima);
+            Collections.sort(melhores, melhorPrimeiro);
+            camada = new ArrayList<Nodo>(melhores.size());
+            for (Candidato c : melhores) {
+                camada.add(c.nodo);
+            }
+        }
+        status.termina(false);
+        return null;
+    }
+
+    /** nodo com a ordem em que foi gerado na camada, para desempate */
+    private static class Candidato {
+        final Nodo nodo;
+        final long ordem;
+
+        Candidato(Nodo nodo, long ordem) {
+            this.nodo = nodo;
+            this.ordem = ordem;
+        }
+    }
+
+    public String toString() {
+        return "Busca em feixe (largura " + largura + ", por " + (ordenaPorF ? "f" : "g") + ")";
+    }
+}
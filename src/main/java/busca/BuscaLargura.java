@@ -1,8 +1,5 @@
 package busca;
 
-import java.util.PriorityQueue;
-import java.util.Queue;
-
 /**
  *
  * Busca a solucao por busca em largura.
@@ -27,24 +24,34 @@ public class BuscaLargura extends Busca {
         status.inicia();
         initFechados();
        
-        Queue<Nodo> abertos = new PriorityQueue<Nodo>();
+        // lista ordenada por g (custo uniforme), empates pelo ultimo gerado
+        Fronteira abertos = novaFronteira(() -> new FronteiraBaldes(false));
         
-        abertos.add(new Nodo(inicial, null));
+        iniciaAbertos(inicial, abertos);
         
-        while (!parar && abertos.size() > 0) {
+        while (!parar && abertos.tamanho() > 0) {
+            verificaPontoDeControle(abertos);
             
             //System.out.print("*** abertos "+abertos);
-            Nodo n = abertos.remove();
+            Nodo n = abertos.retira();
+            materializa(n);
             //System.out.println("*** pegando "+n);
-            status.explorando(n, abertos.size());
+            status.explorando(n, abertos.tamanho());
             if (n.estado.ehMeta()) {
             	
+                terminaPontoDeControle(abertos, true);
                 status.termina(true);
                 return n;
             }
                         
-            abertos.addAll( sucessores(n) );
+            for (Nodo s : sucessores(n)) {
+                if (podeCompactar()) {
+                    s.compacta();
+                }
+                abertos.insere(s);
+            }
         }
+        terminaPontoDeControle(abertos, !parar && abertos.tamanho() == 0);
         status.termina(false);
         return null;
     }
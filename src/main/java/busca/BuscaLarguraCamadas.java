@@ -0,0 +1,161 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *   Busca em largura por camadas (profundidades)
+ *
+ *   Para problemas em que todos os caminhos ate um estado tem o mesmo
+ *   numero de passos (por exemplo, cada acao atribui um objetivo), um
+ *   estado repetido so pode aparecer na mesma camada. Entao os fechados
+ *   guardam somente a proxima camada, e cada camada e descartada depois de
+ *   explorada: a memoria fica limitada pela camada mais larga, e nao por
+ *   todo o espaco de estados (util para enumerar todas as solucoes).
+ *
+ *   Cada camada e explorada em ordem de custo g, entao a primeira solucao
+ *   encontrada e a de menor custo da camada mais rasa que tem solucoes.
+ *   Se houver caminhos de tamanhos diferentes ate um estado, ele e
+ *   explorado uma vez em cada camada em que aparecer.
+ */
+public class BuscaLarguraCamadas extends Busca {
+
+    private int maxCamada = 0;
+
+    /** busca sem mostrar status */
+    public BuscaLarguraCamadas() {
+    }
+
+    /**
+     * busca mostrando status
+     * @param ms shows console
+     */
+    public BuscaLarguraCamadas(MostraStatusConsole ms) {
+        super(ms);
+    }
+
+    /**
+     * numero de nodos da maior camada da ultima busca
+     * @return number of nodes of the widest layer
+     */
+    public int getMaxCamada() {
+        return maxCamada;
+    }
+
+    public Nodo busca(Estado inicial) {
+        status.inicia();
+        initRefeitos();
+        maxCamada = 1;
+
+        List<Nodo> camada = new ArrayList<Nodo>();
+        camada.add(new Nodo(inicial, null));
+
+        while (!parar && !camada.isEmpty()) {
+            Collections.sort(camada); // por g, a ordenacao e estavel
+            Proxima proxima = new Proxima();
+
+            for (int i = 0; i < camada.size(); i++) {
+                Nodo n = camada.get(i);
+                camada.set(i, null); // o nodo explorado so fica em memoria se tiver filhos
+                materializa(n);
+                status.explorando(n, camada.size() - i - 1 + proxima.tamanho());
+                if (n.estado.ehMeta()) {
+                    status.termina(true);
+                    return n;
+                }
+
+                Iterator<Estado> estados = iteradorEstados(n);
+                while (estados.hasNext()) {
+                    proxima.insere(new Nodo(estados.next(), n));
+                }
+                if (parar) {
+                    break;
+                }
+            }
+
+            camada = proxima.nodos();
+            maxCamada = Math.max(maxCamada, camada.size());
+        }
+        status.termina(false);
+        return null;
+    }
+
+    /**
+     * a proxima camada, que tambem e a lista de fechados: somente o nodo
+     * de menor custo de cada estado e guardado
+     */
+    private class Proxima {
+        private final Map<Estado,Nodo> porEstado = usarFechado && podar && !usarFechadoCompacto ? new LinkedHashMap<Estado,Nodo>() : null;
+        private final FechadosCompacto assinaturas = usarFechado && podar && usarFechadoCompacto ? new FechadosCompacto() : null;
+        private final List<Nodo> lista = porEstado == null ? new ArrayList<Nodo>() : null;
+        // com fechados compactos, a assinatura de cada nodo da lista (os nodos compactados nao tem o estado)
+        private long[] chaves = assinaturas != null ? new long[16] : null;
+        private final BitSet comAssinatura = new BitSet();
+        private int substituidos = 0;
+
+        void insere(Nodo n) {
+            if (porEstado != null) {
+                Nodo outro = porEstado.get(n.estado);
+                if (outro == null || n.g < outro.g) {
+                    porEstado.put(n.estado, n);
+                }
+                return;
+            }
+            if (assinaturas != null && n.estado instanceof Assinatura) {
+                long a = ((Assinatura)n.estado).assinatura();
+                boolean repetido = assinaturas.custo(a) >= 0;
+                if (!assinaturas.atualiza(a, n.g)) {
+                    return; // ja esta na camada com custo menor ou igual
+                }
+                if (repetido) {
+                    substituidos++; // o nodo antigo fica na lista e e descartado em nodos()
+                }
+                if (lista.size() == chaves.length) {
+                    chaves = Arrays.copyOf(chaves, chaves.length * 2);
+                }
+                chaves[lista.size()] = a;
+                comAssinatura.set(lista.size());
+            }
+            if (usarNodoCompacto) {
+                n.compacta();
+            }
+            lista.add(n);
+        }
+
+        int tamanho() {
+            return porEstado != null ? porEstado.size() : lista.size() - substituidos;
+        }
+
+        /**
+         * os nodos da camada, sem os que foram substituidos por um nodo de
+         * menor custo do mesmo estado
+         */
+        List<Nodo> nodos() {
+            if (porEstado != null) {
+                return new ArrayList<Nodo>(porEstado.values());
+            }
+            if (substituidos == 0) {
+                return lista;
+            }
+            List<Nodo> r = new ArrayList<Nodo>(lista.size() - substituidos);
+            for (int i = 0; i < lista.size(); i++) {
+                Nodo n = lista.get(i);
+                // o custo guardado e o do ultimo nodo aceito de cada estado
+                if (!comAssinatura.get(i) || assinaturas.custo(chaves[i]) == n.g) {
+                    r.add(n);
+                }
+            }
+            return r;
+        }
+    }
+
+    public String toString() {
+        return "BLC - Busca em Largura por camadas";
+    }
+}
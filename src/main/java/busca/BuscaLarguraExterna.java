@@ -0,0 +1,400 @@
+package busca;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ *   Busca em largura em memoria externa (disco)
+ *
+ *   Como na busca por camadas (ver BuscaLarguraCamadas), um estado repetido
+ *   so pode aparecer na mesma camada, mas as camadas ficam em arquivos e
+ *   nao em memoria. Cada estado e gravado de forma compacta: a assinatura,
+ *   o custo g e as acoes que o geram a partir do estado inicial (ver
+ *   Reconstrutivel). O estado e refeito repetindo as acoes quando e lido
+ *   para ser explorado.
+ *
+ *   A proxima camada e acumulada em memoria ate maxRegistros, ordenada por
+ *   assinatura e gravada como uma sequencia ordenada. No fim da camada as
+ *   sequencias sao intercaladas e somente o registro de menor custo de cada
+ *   assinatura fica no arquivo da camada. Os arquivos sao lidos e gravados
+ *   sequencialmente por canais NIO. A memoria usada fica limitada por
+ *   maxRegistros, e nao pelo numero de estados.
+ *
+ *   Estados diferentes com a mesma assinatura sao tratados como repetidos
+ *   (como nos fechados compactos). A primeira solucao encontrada e uma das
+ *   da camada mais rasa que tem solucoes, mas nao necessariamente a de
+ *   menor custo: a busca serve para enumerar todas as solucoes.
+ */
+public class BuscaLarguraExterna extends Busca {
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private Path diretorio = null; // null para um diretorio temporario
+    private int maxRegistros = 1 << 20;
+    private long maxCamada = 0;
+
+    /** busca sem mostrar status */
+    public BuscaLarguraExterna() {
+    }
+
+    /**
+     * busca mostrando status
+     * @param ms shows console
+     */
+    public BuscaLarguraExterna(MostraStatusConsole ms) {
+        super(ms);
+    }
+
+    /**
+     * diretorio onde as camadas sao gravadas, os arquivos sao apagados no
+     * fim da busca
+     * @param d a directory, null for a new temporary one
+     */
+    public void setDiretorio(Path d) {
+        diretorio = d;
+    }
+
+    /**
+     * numero de registros da proxima camada guardados em memoria antes de
+     * gravar uma sequencia ordenada
+     * @param m max number of records in memory
+     */
+    public void setMaxRegistros(int m) {
+        maxRegistros = Math.max(2, m);
+    }
+
+    public int getMaxRegistros() {
+        return maxRegistros;
+    }
+
+    /**
+     * numero de estados da maior camada da ultima busca
+     * @return number of states of the widest layer
+     */
+    public long getMaxCamada() {
+        return maxCamada;
+    }
+
+    public Nodo busca(Estado inicial) throws IOException {
+        if (!(inicial instanceof Reconstrutivel) || !(inicial instanceof Assinatura)) {
+            throw new IllegalArgumentException("A busca em memoria externa precisa de estados Reconstrutivel e Assinatura");
+        }
+        status.inicia();
+        maxCamada = 1;
+
+        boolean temporario = diretorio == null;
+        Path dir = temporario ? Files.createTempDirectory("busca") : Files.createDirectories(diretorio);
+        List<Path> arquivos = new ArrayList<Path>();
+        try {
+            Nodo raiz = new Nodo(inicial, null);
+            int profundidade = 0;
+            Path camada = novoArquivo(dir, arquivos, "camada-0");
+            try (Escritor e = new Escritor(camada)) {
+                e.grava(((Assinatura)inicial).assinatura(), raiz.g, new int[0], 0, 0);
+            }
+            long tamanho = 1;
+
+            while (!parar && tamanho > 0) {
+                Proxima proxima = new Proxima(dir, arquivos, profundidade + 1);
+                CaminhoRefeito caminho = new CaminhoRefeito(raiz);
+                try (Leitor leitor = new Leitor(camada, profundidade)) {
+                    long restantes = tamanho;
+                    while (!parar && leitor.proximo()) {
+                        Nodo n = caminho.refaz(leitor.acoes, profundidade);
+                        restantes--;
+                        status.explorando(n, (int) Math.min(Integer.MAX_VALUE, restantes + proxima.tamanho));
+                        if (n.estado.ehMeta()) {
+                            status.termina(true);
+                            return n;
+                        }
+
+                        Iterator<Estado> estados = iteradorEstados(n);
+                        while (estados.hasNext()) {
+                            Estado s = estados.next();
+                            int acao = ((Reconstrutivel)s).acao();
+                            if (acao < 0) {
+                                throw new IllegalStateException("O estado " + s + " nao pode ser refeito a partir do pai");
+                            }
+                            proxima.insere(((Assinatura)s).assinatura(), n.g + s.custo(), leitor.acoes, acao);
+                        }
+                    }
+                }
+                if (parar) {
+                    break;
+                }
+                Files.delete(camada);
+                camada = proxima.intercala();
+                tamanho = proxima.tamanho;
+                maxCamada = Math.max(maxCamada, tamanho);
+                profundidade++;
+            }
+            status.termina(false);
+            return null;
+        } finally {
+            for (Path p : arquivos) {
+                Files.deleteIfExists(p);
+            }
+            if (temporario) {
+                Files.deleteIfExists(dir);
+            }
+        }
+    }
+
+    private static Path novoArquivo(Path dir, List<Path> arquivos, String nome) {
+        Path p = dir.resolve(nome + ".bin");
+        arquivos.add(p);
+        return p;
+    }
+
+    /**
+     * a proxima camada: os registros ficam em memoria ate maxRegistros e
+     * depois sao gravados como sequencias ordenadas por assinatura
+     */
+    private class Proxima {
+        final Path dir;
+        final List<Path> arquivos;
+        final int profundidade; // numero de acoes de cada registro
+        final List<Path> sequencias = new ArrayList<Path>();
+        final int max; // registros em memoria antes de gravar uma sequencia
+        long[] chaves = new long[0];
+        int[] custos = new int[0];
+        int[] acoes = new int[0];
+        int nroRegistros = 0;
+        long tamanho = 0; // registros inseridos, sem os repetidos depois de intercalar
+
+        Proxima(Path dir, List<Path> arquivos, int profundidade) {
+            this.dir = dir;
+            this.arquivos = arquivos;
+            this.profundidade = profundidade;
+            max = Math.min(maxRegistros, Integer.MAX_VALUE / profundidade);
+        }
+
+        void insere(long chave, int custo, int[] acoesPai, int acao) throws IOException {
+            if (nroRegistros == max) {
+                gravaSequencia();
+            }
+            if (nroRegistros == chaves.length) { // os vetores crescem ate max
+                int n = Math.min(max, Math.max(1024, chaves.length * 2));
+                chaves = Arrays.copyOf(chaves, n);
+                custos = Arrays.copyOf(custos, n);
+                acoes = Arrays.copyOf(acoes, n * profundidade);
+            }
+            chaves[nroRegistros] = chave;
+            custos[nroRegistros] = custo;
+            System.arraycopy(acoesPai, 0, acoes, nroRegistros * profundidade, profundidade - 1);
+            acoes[nroRegistros * profundidade + profundidade - 1] = acao;
+            nroRegistros++;
+            tamanho++;
+        }
+
+        /**
+         * ordena os registros em memoria por assinatura e custo e grava os
+         * de menor custo de cada assinatura
+         */
+        void gravaSequencia() throws IOException {
+            int[] ordem = new int[nroRegistros];
+            for (int i = 0; i < nroRegistros; i++) {
+                ordem[i] = i;
+            }
+            ordena(ordem, new int[nroRegistros], 0, nroRegistros);
+
+            Path p = novoArquivo(dir, arquivos, "sequencia-" + profundidade + "-" + sequencias.size());
+            sequencias.add(p);
+            try (Escritor e = new Escritor(p)) {
+                for (int k = 0; k < nroRegistros; k++) {
+                    int i = ordem[k];
+                    if (k > 0 && eliminaRepetidos() && chaves[ordem[k - 1]] == chaves[i]) {
+                        continue;
+                    }
+                    e.grava(chaves[i], custos[i], acoes, i * profundidade, profundidade);
+                }
+            }
+            nroRegistros = 0;
+        }
+
+        /** merge sort (estavel) dos indices por assinatura e depois por custo */
+        private void ordena(int[] v, int[] aux, int inicio, int fim) {
+            if (fim - inicio < 2) {
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            ordena(v, aux, inicio, meio);
+            ordena(v, aux, meio, fim);
+            int i = inicio, j = meio, k = inicio;
+            while (i < meio && j < fim) {
+                aux[k++] = compara(v[j], v[i]) < 0 ? v[j++] : v[i++];
+            }
+            while (i < meio) {
+                aux[k++] = v[i++];
+            }
+            while (j < fim) {
+                aux[k++] = v[j++];
+            }
+            System.arraycopy(aux, inicio, v, inicio, fim - inicio);
+        }
+
+        private int compara(int a, int b) {
+            int r = Long.compare(chaves[a], chaves[b]);
+            return r != 0 ? r : Integer.compare(custos[a], custos[b]);
+        }
+
+        /**
+         * intercala as sequencias no arquivo da camada, deixando somente o
+         * registro de menor custo de cada assinatura
+         * @return the file of the layer
+         */
+        Path intercala() throws IOException {
+            if (nroRegistros > 0 || sequencias.isEmpty()) {
+                gravaSequencia();
+            }
+            if (sequencias.size() == 1) { // ja esta ordenada e sem repetidos
+                tamanho = Files.size(sequencias.get(0)) / (12 + 4L * profundidade);
+                return sequencias.get(0);
+            }
+
+            Path camada = novoArquivo(dir, arquivos, "camada-" + profundidade);
+            PriorityQueue<Leitor> leitores = new PriorityQueue<Leitor>(sequencias.size(), (l1, l2) -> {
+                int r = Long.compare(l1.chave, l2.chave);
+                return r != 0 ? r : Integer.compare(l1.custo, l2.custo);
+            });
+            tamanho = 0;
+            try (Escritor e = new Escritor(camada)) {
+                for (Path p : sequencias) {
+                    Leitor l = new Leitor(p, profundidade);
+                    if (l.proximo()) {
+                        leitores.add(l);
+                    } else {
+                        l.close();
+                    }
+                }
+                boolean primeiro = true;
+                long ultima = 0;
+                while (!leitores.isEmpty()) {
+                    Leitor l = leitores.remove();
+                    if (primeiro || !eliminaRepetidos() || l.chave != ultima) {
+                        e.grava(l.chave, l.custo, l.acoes, 0, profundidade);
+                        tamanho++;
+                    }
+                    primeiro = false;
+                    ultima = l.chave;
+                    if (l.proximo()) {
+                        leitores.add(l);
+                    } else {
+                        l.close();
+                    }
+                }
+            } finally {
+                for (Leitor l : leitores) {
+                    l.close();
+                }
+            }
+            for (Path p : sequencias) {
+                Files.delete(p);
+            }
+            return camada;
+        }
+    }
+
+    private boolean eliminaRepetidos() {
+        return usarFechado && podar;
+    }
+
+    /**
+     * grava registros (assinatura, custo e acoes) sequencialmente
+     */
+    private static class Escritor implements Closeable {
+        final FileChannel canal;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+
+        Escritor(Path p) throws IOException {
+            canal = FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        void grava(long chave, int custo, int[] acoes, int inicio, int n) throws IOException {
+            if (buffer.remaining() < 12) {
+                esvazia();
+            }
+            buffer.putLong(chave);
+            buffer.putInt(custo);
+            for (int i = inicio; i < inicio + n; i++) {
+                if (buffer.remaining() < 4) {
+                    esvazia();
+                }
+                buffer.putInt(acoes[i]);
+            }
+        }
+
+        private void esvazia() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        public void close() throws IOException {
+            esvazia();
+            canal.close();
+        }
+    }
+
+    /**
+     * le registros (assinatura, custo e acoes) sequencialmente
+     */
+    private static class Leitor implements Closeable {
+        final FileChannel canal;
+        final ByteBuffer buffer;
+        final int tamanhoRegistro;
+        long chave;
+        int custo;
+        final int[] acoes;
+
+        Leitor(Path p, int profundidade) throws IOException {
+            canal = FileChannel.open(p, StandardOpenOption.READ);
+            tamanhoRegistro = 12 + 4 * profundidade;
+            buffer = ByteBuffer.allocateDirect(Math.max(TAMANHO_BUFFER, tamanhoRegistro));
+            buffer.flip(); // vazio
+            acoes = new int[profundidade];
+        }
+
+        /**
+         * le o proximo registro
+         * @return false at the end of the file
+         */
+        boolean proximo() throws IOException {
+            if (buffer.remaining() < tamanhoRegistro) {
+                buffer.compact();
+                while (buffer.position() < tamanhoRegistro && canal.read(buffer) >= 0) {
+                }
+                buffer.flip();
+                if (buffer.remaining() < tamanhoRegistro) {
+                    return false;
+                }
+            }
+            chave = buffer.getLong();
+            custo = buffer.getInt();
+            for (int i = 0; i < acoes.length; i++) {
+                acoes[i] = buffer.getInt();
+            }
+            return true;
+        }
+
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+
+    public String toString() {
+        return "BLE - Busca em Largura em memoria externa";
+    }
+}
@@ -1,7 +1,7 @@
 package busca;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Iterator;
 
 
 /**
@@ -42,27 +42,39 @@ public class BuscaProfundidade extends Busca {
         status.inicia();
         initFechados();
         
-        List<Nodo> abertos = new LinkedList<Nodo>();
+        // os sucessores sao gerados sob demanda: a pilha guarda, para cada nodo
+        // do caminho atual, os sucessores que ainda nao foram gerados
+        ArrayDeque<Iterator<Nodo>> pilha = new ArrayDeque<Iterator<Nodo>>();
         
-        abertos.add(new Nodo(inicial, null));
+        Nodo n = new Nodo(inicial, null);
         
-        while (!parar && abertos.size() > 0) {
+        while (!parar && n != null) {
             
-            Nodo n = abertos.remove(0);
 //            status.explorando(n,abertos.size());
 //            if (n.estado.ehMeta()) {
             //Para evitar que ehMeta do Estado seja chamada duas vezes seguidas
-            if (status.explorandoEhMeta(n,abertos.size())) {
+            if (status.explorandoEhMeta(n,pilha.size())) {
                 status.termina(true);
                 return n;
             }
         
             if (n.getProfundidade() < profMax) {
-                abertos.addAll( 0, sucessores(n) );
+                pilha.push( iteradorSucessores(n) );
             } else {
             	status.termina(false);
             	return null;
             }
+            
+            // o proximo e o primeiro sucessor ainda nao gerado do nodo mais profundo
+            n = null;
+            while (n == null && !pilha.isEmpty()) {
+                Iterator<Nodo> i = pilha.peek();
+                if (i.hasNext()) {
+                    n = i.next();
+                } else {
+                    pilha.pop();
+                }
+            }
         }
         status.termina(false);
         return null;
@@ -0,0 +1,60 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *   Refaz nodos a partir do nodo inicial repetindo as acoes que os geraram
+ *   (ver Reconstrutivel). Os nodos do ultimo caminho refeito sao guardados,
+ *   entao o prefixo comum com o proximo caminho nao e refeito.
+ */
+class CaminhoRefeito {
+
+    private final List<Nodo> nodos = new ArrayList<Nodo>(); // o nodo de cada profundidade
+    private int[] acoes = new int[0];
+
+    CaminhoRefeito(Nodo raiz) {
+        nodos.add(raiz);
+    }
+
+    /**
+     * @param novas the actions from the initial node
+     * @param n the number of actions
+     * @return the node at the end of the path
+     */
+    Nodo refaz(int[] novas, int n) {
+        int comum = 0;
+        while (comum < acoes.length && comum < n && acoes[comum] == novas[comum]) {
+            comum++;
+        }
+        for (int i = comum; i < n; i++) {
+            Nodo pai = nodos.get(i);
+            Nodo filho = new Nodo(((Reconstrutivel)pai.getEstado()).aplica(novas[i]), pai);
+            while (nodos.size() > i + 1) {
+                nodos.remove(nodos.size() - 1);
+            }
+            nodos.add(filho);
+        }
+        acoes = new int[n];
+        System.arraycopy(novas, 0, acoes, 0, n);
+        return nodos.get(n);
+    }
+
+    /**
+     * as acoes do nodo desde o nodo inicial
+     * @param n a node whose state (or the one of its compacted ancestors) implements Reconstrutivel
+     * @return the actions, the first one is the action of the child of the initial node
+     */
+    static int[] acoes(Nodo n) {
+        int[] r = new int[n.profundidade];
+        for (Nodo m = n; m.pai != null; m = m.pai) {
+            Estado e = m.estado;
+            int a = e != null ? ((Reconstrutivel)e).acao() : m.acao;
+            if (a < 0) {
+                throw new IllegalArgumentException("O estado " + m + " nao pode ser refeito a partir do pai");
+            }
+            r[m.profundidade - 1] = a;
+        }
+        return r;
+    }
+}
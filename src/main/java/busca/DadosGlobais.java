@@ -0,0 +1,24 @@
+package busca;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ *   Estado inicial de um problema com dados globais (por exemplo as
+ *   solucoes ja encontradas numa busca exaustiva) que devem ser guardados
+ *   no ponto de controle (ver PontoDeControle)
+ */
+public interface DadosGlobais {
+
+    /**
+     * copia os dados globais com a busca parada
+     * @return writes the copy, called by the thread that writes the checkpoint
+     */
+    public PontoDeControle.Gravador copiaDadosGlobais();
+
+    /**
+     * restaura os dados gravados pela copia
+     * @param in the checkpoint file
+     */
+    public void leDadosGlobais(DataInput in) throws IOException;
+}
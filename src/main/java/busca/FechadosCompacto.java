@@ -0,0 +1,220 @@
+package busca;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ *   Lista de fechados que guarda somente a assinatura (64 bits) e o custo g
+ *   de cada estado, sem manter os estados em memoria.
+ *
+ *   Usa enderecamento aberto (sondagem linear) em dois vetores primitivos,
+ *   cerca de 12 bytes por posicao da tabela. A tabela dobra de tamanho
+ *   quando passa de 3/4 de ocupacao.
+ *
+ *   A assinatura 0 marca posicoes vazias, entao o estado de assinatura 0
+ *   e guardado a parte.
+ */
+public class FechadosCompacto {
+
+    private static final int CAPACIDADE_INICIAL = 1 << 10;
+
+    private long[] chaves;
+    private int[]  custos;
+    private int    tamanho = 0;
+    private int    limite;  // tamanho a partir do qual a tabela cresce
+
+    private boolean temZero = false;
+    private int     custoZero;
+
+    public FechadosCompacto() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * @param capacidade expected number of states
+     */
+    public FechadosCompacto(int capacidade) {
+        int n = CAPACIDADE_INICIAL;
+        while (n < capacidade / 3 * 4 && n < (1 << 30)) {
+            n <<= 1;
+        }
+        aloca(n);
+    }
+
+    private void aloca(int n) {
+        chaves = new long[n];
+        custos = new int[n];
+        limite = n / 4 * 3;
+    }
+
+    /**
+     * guarda o custo do estado se ele ainda nao esta em fechados ou se o
+     * custo e menor que o ja guardado
+     * @param assinatura fingerprint of the state
+     * @param custo g cost of the state
+     * @return true if the state is new or was reached with a lower cost
+     */
+    public boolean atualiza(long assinatura, int custo) {
+        if (assinatura == 0) {
+            if (temZero && custoZero <= custo)
+                return false;
+            if (!temZero)
+                tamanho++;
+            temZero = true;
+            custoZero = custo;
+            return true;
+        }
+
+        int mascara = chaves.length - 1;
+        int i = posicao(assinatura) & mascara;
+        while (chaves[i] != 0) {
+            if (chaves[i] == assinatura) {
+                if (custos[i] <= custo)
+                    return false;
+                custos[i] = custo;
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = assinatura;
+        custos[i] = custo;
+        if (++tamanho > limite)
+            cresce();
+        return true;
+    }
+
+    /**
+     * custo guardado para o estado
+     * @param assinatura fingerprint of the state
+     * @return the g cost or -1 if the state is not closed
+     */
+    public int custo(long assinatura) {
+        if (assinatura == 0)
+            return temZero ? custoZero : -1;
+
+        int mascara = chaves.length - 1;
+        int i = posicao(assinatura) & mascara;
+        while (chaves[i] != 0) {
+            if (chaves[i] == assinatura)
+                return custos[i];
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * retira o estado de fechados
+     * @param assinatura fingerprint of the state
+     * @return true if the state was closed
+     */
+    public boolean remove(long assinatura) {
+        if (assinatura == 0) {
+            if (!temZero)
+                return false;
+            temZero = false;
+            tamanho--;
+            return true;
+        }
+
+        int mascara = chaves.length - 1;
+        int i = posicao(assinatura) & mascara;
+        while (chaves[i] != assinatura) {
+            if (chaves[i] == 0)
+                return false;
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = 0;
+        tamanho--;
+
+        // as chaves seguintes que estariam antes da posicao livre voltam para ela
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (chaves[j] == 0)
+                return true;
+            int k = posicao(chaves[j]) & mascara;
+            if (i <= j ? (k <= i || k > j) : (k <= i && k > j)) {
+                chaves[i] = chaves[j];
+                custos[i] = custos[j];
+                chaves[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    /**
+     * retira todos os estados, mantendo o tamanho da tabela
+     */
+    public void limpa() {
+        Arrays.fill(chaves, 0);
+        temZero = false;
+        tamanho = 0;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * copia dos vetores para o ponto de controle, com a busca parada
+     * @return writes the number of states and the signature and cost of each one
+     */
+    PontoDeControle.Gravador copia() {
+        final long[] c = chaves.clone();
+        final int[] g = custos.clone();
+        final boolean z = temZero;
+        final int gz = custoZero;
+        final int n = tamanho;
+        return out -> {
+            out.writeInt(n);
+            if (z) {
+                out.writeLong(0);
+                out.writeInt(gz);
+            }
+            for (int i = 0; i < c.length; i++) {
+                if (c[i] != 0) {
+                    out.writeLong(c[i]);
+                    out.writeInt(g[i]);
+                }
+            }
+        };
+    }
+
+    /**
+     * le os estados gravados por copia()
+     */
+    static FechadosCompacto le(DataInput in) throws IOException {
+        int n = in.readInt();
+        FechadosCompacto f = new FechadosCompacto(n);
+        for (int i = 0; i < n; i++) {
+            f.atualiza(in.readLong(), in.readInt());
+        }
+        return f;
+    }
+
+    private void cresce() {
+        long[] velhasChaves = chaves;
+        int[]  velhosCustos = custos;
+        aloca(velhasChaves.length << 1);
+
+        int mascara = chaves.length - 1;
+        for (int j = 0; j < velhasChaves.length; j++) {
+            if (velhasChaves[j] != 0) {
+                int i = posicao(velhasChaves[j]) & mascara;
+                while (chaves[i] != 0)
+                    i = (i + 1) & mascara;
+                chaves[i] = velhasChaves[j];
+                custos[i] = velhosCustos[j];
+            }
+        }
+    }
+
+    /**
+     * mistura os bits da assinatura, ela pode ter pouca entropia nos bits baixos
+     */
+    private static int posicao(long assinatura) {
+        long h = assinatura * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
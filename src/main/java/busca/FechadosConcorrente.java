@@ -0,0 +1,62 @@
+package busca;
+
+/**
+ *   Lista de fechados compacta (ver FechadosCompacto) que pode ser usada
+ *   por varias threads ao mesmo tempo
+ *
+ *   A tabela e dividida em segmentos pelos bits altos da assinatura, cada
+ *   um com o seu proprio bloqueio, entao threads que atualizam estados de
+ *   segmentos diferentes nao esperam uma pela outra.
+ */
+public class FechadosConcorrente {
+
+    private final FechadosCompacto[] segmentos;
+    private final int deslocamento;
+
+    /**
+     * um segmento por processador (vezes 16, para diminuir as disputas)
+     */
+    public FechadosConcorrente() {
+        this(Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    /**
+     * @param nroSegmentos number of independently locked tables, rounded up to a power of two
+     */
+    public FechadosConcorrente(int nroSegmentos) {
+        int bits = 0;
+        while ((1 << bits) < nroSegmentos && bits < 16) {
+            bits++;
+        }
+        segmentos = new FechadosCompacto[1 << bits];
+        for (int i = 0; i < segmentos.length; i++) {
+            segmentos[i] = new FechadosCompacto();
+        }
+        deslocamento = 64 - bits;
+    }
+
+    /**
+     * guarda o custo do estado se ele ainda nao esta em fechados ou se o
+     * custo e menor que o ja guardado (ver FechadosCompacto.atualiza)
+     * @param assinatura fingerprint of the state
+     * @param custo g cost of the state
+     * @return true if the state is new or was reached with a lower cost
+     */
+    public boolean atualiza(long assinatura, int custo) {
+        // os bits altos do hash escolhem o segmento, a posicao dentro dele usa os outros
+        FechadosCompacto s = segmentos[deslocamento == 64 ? 0 : (int) ((assinatura * 0x9e3779b97f4a7c15L) >>> deslocamento)];
+        synchronized (s) {
+            return s.atualiza(assinatura, custo);
+        }
+    }
+
+    public int tamanho() {
+        int t = 0;
+        for (FechadosCompacto s : segmentos) {
+            synchronized (s) {
+                t += s.tamanho();
+            }
+        }
+        return t;
+    }
+}
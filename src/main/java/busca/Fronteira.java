@@ -0,0 +1,31 @@
+package busca;
+
+/**
+ *   Lista de abertos (fronteira) usada pelas buscas, ver
+ *   Busca.setFronteira para trocar a implementacao
+ */
+public interface Fronteira {
+
+    /** insere um nodo aberto */
+    void insere(Nodo n);
+
+    /**
+     * retira o proximo nodo a ser explorado
+     * @return the next node
+     * @throws java.util.NoSuchElementException if it is empty
+     */
+    Nodo retira();
+
+    /** numero de nodos abertos */
+    int tamanho();
+
+    /**
+     * copia os nodos abertos para o ponto de controle, com a busca parada
+     * (ver PontoDeControle.gravaNodos). A copia e gravada por outra thread,
+     * entao nao pode depender de estruturas que a busca altera. Os nodos
+     * sao gravados na ordem em que foram inseridos, para que a busca
+     * retomada os retire na mesma ordem.
+     * @return writes the number of nodes and the actions of each one
+     */
+    PontoDeControle.Gravador copia();
+}
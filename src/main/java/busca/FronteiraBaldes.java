@@ -0,0 +1,114 @@
+package busca;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ *   Fila de prioridade por baldes (bucket queue) para custos inteiros
+ *
+ *   Os nodos ficam num vetor indexado pela chave (f ou g), entao inserir e
+ *   retirar custam O(1), mais o avanco do indice da menor chave. As chaves
+ *   devem ser inteiros pequenos e nao negativos, como os custos de
+ *   Organisation.
+ *
+ *   Ordenado por f, o empate e decidido pelo menor h (o nodo mais perto de
+ *   uma solucao). O empate restante e decidido pelo ultimo inserido (LIFO),
+ *   que continua o caminho que acabou de ser expandido. Cada balde guarda
+ *   somente os valores de h que tem nodos, ordenados numa arvore, entao a
+ *   memoria nao depende do maior h.
+ */
+public class FronteiraBaldes implements Fronteira {
+
+    private final boolean porF;
+    private Balde[] baldes = new Balde[64];
+    private int menor = 0;   // nenhum balde antes deste tem nodos
+    private int tamanho = 0;
+
+    /**
+     * @param porF true to order by f() with ties by h(), false to order by g
+     */
+    public FronteiraBaldes(boolean porF) {
+        this.porF = porF;
+    }
+
+    public void insere(Nodo n) {
+        int chave = porF ? n.f() : n.g;
+        int h = porF ? n.f() - n.g : 0;
+        if (chave < 0 || h < 0) {
+            throw new IllegalArgumentException("Chaves negativas nao podem ser usadas em baldes: " + n);
+        }
+        if (chave >= baldes.length) {
+            baldes = Arrays.copyOf(baldes, Math.max(chave + 1, baldes.length * 2));
+        }
+        if (baldes[chave] == null) {
+            baldes[chave] = new Balde();
+        }
+        baldes[chave].insere(n, h);
+        if (tamanho == 0 || chave < menor) {
+            menor = chave;
+        }
+        tamanho++;
+    }
+
+    public Nodo retira() {
+        if (tamanho == 0) {
+            throw new NoSuchElementException();
+        }
+        while (baldes[menor] == null) {
+            menor++;
+        }
+        Nodo n = baldes[menor].retira();
+        if (baldes[menor].tamanho == 0) {
+            baldes[menor] = null; // libera a memoria do balde vazio
+        }
+        tamanho--;
+        return n;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public PontoDeControle.Gravador copia() {
+        List<Nodo> nodos = new ArrayList<Nodo>(tamanho);
+        for (int chave = menor; chave < baldes.length; chave++) {
+            if (baldes[chave] != null) {
+                for (ArrayDeque<Nodo> d : baldes[chave].porH.values()) {
+                    nodos.addAll(d);
+                }
+            }
+        }
+        return PontoDeControle.gravaNodos(nodos);
+    }
+
+    /** nodos de mesma chave, separados por h (somente os h que tem nodos) */
+    private static class Balde {
+        final TreeMap<Integer,ArrayDeque<Nodo>> porH = new TreeMap<Integer,ArrayDeque<Nodo>>();
+        int tamanho = 0;
+
+        void insere(Nodo n, int h) {
+            ArrayDeque<Nodo> d = porH.get(h);
+            if (d == null) {
+                d = new ArrayDeque<Nodo>();
+                porH.put(h, d);
+            }
+            d.addLast(n);
+            tamanho++;
+        }
+
+        Nodo retira() {
+            Map.Entry<Integer,ArrayDeque<Nodo>> menor = porH.firstEntry();
+            Nodo n = menor.getValue().pollLast();
+            if (menor.getValue().isEmpty()) {
+                porH.remove(menor.getKey());
+            }
+            tamanho--;
+            return n;
+        }
+    }
+}
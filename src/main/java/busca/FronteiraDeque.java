@@ -0,0 +1,42 @@
+package busca;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+
+/**
+ *   Fronteira sem ordenacao por custo, sobre um vetor circular: fila (FIFO)
+ *   para busca em largura ou pilha (LIFO) para busca em profundidade
+ */
+public class FronteiraDeque implements Fronteira {
+
+    private final ArrayDeque<Nodo> nodos = new ArrayDeque<Nodo>();
+    private final boolean lifo;
+
+    /**
+     * @param lifo true for a stack, false for a queue
+     */
+    public FronteiraDeque(boolean lifo) {
+        this.lifo = lifo;
+    }
+
+    public void insere(Nodo n) {
+        nodos.addLast(n);
+    }
+
+    public Nodo retira() {
+        Nodo n = lifo ? nodos.pollLast() : nodos.pollFirst();
+        if (n == null) {
+            throw new NoSuchElementException();
+        }
+        return n;
+    }
+
+    public int tamanho() {
+        return nodos.size();
+    }
+
+    public PontoDeControle.Gravador copia() {
+        return PontoDeControle.gravaNodos(new ArrayList<Nodo>(nodos));
+    }
+}
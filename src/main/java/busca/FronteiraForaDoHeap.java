@@ -0,0 +1,277 @@
+package busca;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ *   Fila de prioridade por baldes (como FronteiraBaldes) que guarda os
+ *   nodos fora do heap, em ByteBuffers diretos
+ *
+ *   Cada nodo e gravado como as acoes que o geram a partir do nodo inicial
+ *   (ver Reconstrutivel) e o f, entao os estados e os nodos abertos
+ *   nao ficam no heap e o coletor de lixo nao precisa percorre-los. No heap
+ *   ficam somente o nodo inicial e o indice dos baldes. O nodo e refeito
+ *   quando e retirado, repetindo as acoes (o prefixo comum com o ultimo
+ *   nodo retirado nao e refeito).
+ *
+ *   Os fechados guardam os estados, entao deve ser usada com fechados
+ *   compactos (ver Busca.usarFechadosCompactos).
+ */
+public class FronteiraForaDoHeap implements Fronteira {
+
+    private static final int PAGINA_MIN = 256;
+    private static final int PAGINA_MAX = 1 << 16;
+    private static final int MAX_PAGINAS_LIVRES = 64;
+
+    private final boolean porF;
+    private Balde[] baldes = new Balde[64];
+    private int menor = 0;   // nenhum balde antes deste tem nodos
+    private int tamanho = 0;
+
+    private Nodo raiz = null;
+    private boolean raizAberta = false;
+    private CaminhoRefeito caminho = null;
+    private int[] acoes = new int[16];
+    private final ArrayDeque<ByteBuffer> paginasLivres = new ArrayDeque<ByteBuffer>();
+
+    /**
+     * @param porF true to order by f() with ties by h(), false to order by g
+     */
+    public FronteiraForaDoHeap(boolean porF) {
+        this.porF = porF;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the state of the node cannot be rebuilt (see Reconstrutivel)
+     */
+    public void insere(Nodo n) {
+        int chave = porF ? n.f() : n.g;
+        int h = porF ? n.f() - n.g : 0;
+        if (chave < 0 || h < 0) {
+            throw new IllegalArgumentException("Chaves negativas nao podem ser usadas em baldes: " + n);
+        }
+
+        if (n.pai == null) { // o nodo inicial fica no heap, os outros sao refeitos a partir dele
+            if (raiz != null && raiz != n) {
+                throw new IllegalArgumentException("A fronteira ja tem um nodo inicial");
+            }
+            raiz = n;
+            raizAberta = true;
+            caminho = new CaminhoRefeito(raiz);
+            tamanho++;
+            return;
+        }
+
+        if (raiz == null) { // retomada de um ponto de controle, o nodo inicial ja foi expandido
+            raiz = n.pai;
+            while (raiz.pai != null) {
+                raiz = raiz.pai;
+            }
+            caminho = new CaminhoRefeito(raiz);
+        }
+        if (chave >= baldes.length) {
+            baldes = Arrays.copyOf(baldes, Math.max(chave + 1, baldes.length * 2));
+        }
+        if (baldes[chave] == null) {
+            baldes[chave] = new Balde();
+        }
+        baldes[chave].pilha(h).empilha(CaminhoRefeito.acoes(n), porF ? n.f() : -1);
+        if (tamanho == 0 || chave < menor) {
+            menor = chave;
+        }
+        tamanho++;
+    }
+
+    public Nodo retira() {
+        if (tamanho == 0) {
+            throw new NoSuchElementException();
+        }
+        tamanho--;
+        if (raizAberta) { // so e inserido no inicio, antes de qualquer outro nodo
+            raizAberta = false;
+            return raiz;
+        }
+        while (baldes[menor] == null) {
+            menor++;
+        }
+        Balde b = baldes[menor];
+        Pilha p = b.menorPilha();
+        int f = p.desempilha();
+        b.tamanho--;
+        if (b.tamanho == 0) {
+            baldes[menor] = null;
+        }
+
+        Nodo n = caminho.refaz(acoes, p.nroAcoes);
+        if (f >= 0) {
+            n.f = f;
+        }
+        return n;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * copia as paginas (os bytes, fora do heap), os registros sao lidos
+     * pela thread que grava
+     */
+    public PontoDeControle.Gravador copia() {
+        final List<ByteBuffer> copias = new ArrayList<ByteBuffer>();
+        for (int chave = menor; chave < baldes.length; chave++) {
+            if (baldes[chave] != null) {
+                for (Pilha p : baldes[chave].porH) {
+                    if (p != null) {
+                        for (ByteBuffer pagina : p.paginas) {
+                            ByteBuffer origem = pagina.duplicate();
+                            origem.flip();
+                            ByteBuffer copia = ByteBuffer.allocateDirect(origem.remaining());
+                            copia.put(origem);
+                            copias.add(copia);
+                        }
+                    }
+                }
+            }
+        }
+        final long n = tamanho;
+        final boolean comRaiz = raizAberta;
+        return out -> {
+            out.writeLong(n);
+            if (comRaiz) {
+                PontoDeControle.gravaAcoes(out, new int[0], 0);
+            }
+            int[] a = new int[16];
+            int[] inicios = new int[16];
+            for (ByteBuffer pagina : copias) {
+                // os registros sao lidos de tras para frente e gravados na ordem em que foram inseridos
+                int nroRegistros = 0;
+                for (int fim = pagina.position(); fim > 0; fim -= 8 + 4 * pagina.getInt(fim - 4)) {
+                    if (nroRegistros == inicios.length) {
+                        inicios = Arrays.copyOf(inicios, nroRegistros * 2);
+                    }
+                    inicios[nroRegistros++] = fim;
+                }
+                for (int r = nroRegistros - 1; r >= 0; r--) {
+                    int fim = inicios[r];
+                    int nroAcoes = pagina.getInt(fim - 4);
+                    int inicio = fim - 8 - 4 * nroAcoes;
+                    if (a.length < nroAcoes) {
+                        a = new int[nroAcoes];
+                    }
+                    for (int i = 0; i < nroAcoes; i++) {
+                        a[i] = pagina.getInt(inicio + 4 * i);
+                    }
+                    PontoDeControle.gravaAcoes(out, a, nroAcoes);
+                }
+            }
+        };
+    }
+
+    private ByteBuffer novaPagina(int capacidade) {
+        if (capacidade == PAGINA_MAX && !paginasLivres.isEmpty()) {
+            return paginasLivres.pop();
+        }
+        return ByteBuffer.allocateDirect(capacidade);
+    }
+
+    private void liberaPagina(ByteBuffer pagina) {
+        if (pagina.capacity() == PAGINA_MAX && paginasLivres.size() < MAX_PAGINAS_LIVRES) {
+            pagina.clear();
+            paginasLivres.push(pagina);
+        }
+    }
+
+    /** nodos de mesma chave, separados por h */
+    private class Balde {
+        final List<Pilha> porH = new ArrayList<Pilha>();
+        int menorH = Integer.MAX_VALUE;
+        int tamanho = 0;
+
+        Pilha pilha(int h) {
+            while (porH.size() <= h) {
+                porH.add(null);
+            }
+            if (porH.get(h) == null) {
+                porH.set(h, new Pilha());
+            }
+            if (h < menorH) {
+                menorH = h;
+            }
+            tamanho++;
+            return porH.get(h);
+        }
+
+        Pilha menorPilha() {
+            while (porH.get(menorH) == null || porH.get(menorH).vazia()) {
+                porH.set(menorH, null); // libera as paginas
+                menorH++;
+            }
+            return porH.get(menorH);
+        }
+    }
+
+    /**
+     * pilha de registros em paginas fora do heap. Cada registro e gravado
+     * como as acoes, o f e o numero de acoes, para ser lido de tras para
+     * frente.
+     */
+    private class Pilha {
+        final List<ByteBuffer> paginas = new ArrayList<ByteBuffer>(1);
+        int nroAcoes; // do ultimo registro desempilhado
+
+        boolean vazia() {
+            return paginas.isEmpty();
+        }
+
+        void empilha(int[] a, int f) {
+            int tamanhoRegistro = 4 * a.length + 8;
+            if (tamanhoRegistro > PAGINA_MAX) {
+                throw new IllegalArgumentException("Caminho muito longo para a fronteira: " + a.length + " acoes");
+            }
+            ByteBuffer pagina = paginas.isEmpty() ? null : paginas.get(paginas.size() - 1);
+            if (pagina == null || pagina.remaining() < tamanhoRegistro) {
+                // as paginas crescem, as pilhas pequenas ocupam pouca memoria
+                int capacidade = pagina == null ? PAGINA_MIN : Math.min(PAGINA_MAX, pagina.capacity() * 2);
+                while (capacidade < tamanhoRegistro) {
+                    capacidade *= 2;
+                }
+                pagina = novaPagina(capacidade);
+                paginas.add(pagina);
+            }
+            for (int x : a) {
+                pagina.putInt(x);
+            }
+            pagina.putInt(f);
+            pagina.putInt(a.length);
+        }
+
+        /**
+         * retira o ultimo registro, as acoes ficam em acoes
+         * @return the f of the node or -1 if it is not ordered by f
+         */
+        int desempilha() {
+            ByteBuffer pagina = paginas.get(paginas.size() - 1);
+            int fim = pagina.position();
+            nroAcoes = pagina.getInt(fim - 4);
+            int f = pagina.getInt(fim - 8);
+            int inicio = fim - 8 - 4 * nroAcoes;
+            if (acoes.length < nroAcoes) {
+                acoes = new int[Math.max(nroAcoes, acoes.length * 2)];
+            }
+            for (int i = 0; i < nroAcoes; i++) {
+                acoes[i] = pagina.getInt(inicio + 4 * i);
+            }
+            pagina.position(inicio);
+            if (inicio == 0) {
+                paginas.remove(paginas.size() - 1);
+                liberaPagina(pagina);
+            }
+            return f;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ *   Fronteira ordenada por um comparador qualquer (heap, O(log n) por
+ *   operacao), para custos que nao cabem em baldes
+ */
+public class FronteiraOrdenada implements Fronteira {
+
+    private final PriorityQueue<Nodo> nodos;
+
+    /** ordenada por g (ver Nodo.compareTo) */
+    public FronteiraOrdenada() {
+        nodos = new PriorityQueue<Nodo>();
+    }
+
+    /**
+     * @param c the order of the nodes
+     */
+    public FronteiraOrdenada(Comparator<Nodo> c) {
+        nodos = new PriorityQueue<Nodo>(100, c);
+    }
+
+    public void insere(Nodo n) {
+        nodos.add(n);
+    }
+
+    public Nodo retira() {
+        return nodos.remove();
+    }
+
+    public int tamanho() {
+        return nodos.size();
+    }
+
+    public PontoDeControle.Gravador copia() {
+        return PontoDeControle.gravaNodos(new ArrayList<Nodo>(nodos));
+    }
+}
@@ -11,6 +11,7 @@ public class Nodo implements Comparable<Object> {
     int    profundidade = 0;
     int    g = 0; // custo de ter gerado o nodo (todo o caminho)
     int    f = -1; // f = g + h
+    int    acao = -1; // acao que gerou o estado, quando o nodo esta compactado (estado == null)
     
     public Nodo(Estado e, Nodo p) {
         estado = e;
@@ -28,8 +29,12 @@ public class Nodo implements Comparable<Object> {
         return profundidade;
     }
     
+    /**
+     * o estado do nodo, refeito a partir dos pais se o nodo esta compactado
+     * @return the state
+     */
     public Estado getEstado() {
-    	return estado;
+    	return estado != null ? estado : reconstroi();
     }
     
     public Nodo getPai() {
@@ -55,6 +60,41 @@ public class Nodo implements Comparable<Object> {
         return f;
     }
 
+    /**
+     * descarta o estado, guardando somente a acao que o gerou a partir do
+     * pai (ver Reconstrutivel). O f e calculado antes, pois depende do estado.
+     * @return true if the node was compacted
+     */
+    boolean compacta() {
+        if (estado == null) {
+            return true;
+        }
+        if (pai == null || !(estado instanceof Reconstrutivel)) {
+            return false;
+        }
+        int a = ((Reconstrutivel)estado).acao();
+        if (a < 0) {
+            return false;
+        }
+        if (estado instanceof Heuristica) {
+            f();
+        }
+        acao = a;
+        estado = null;
+        return true;
+    }
+
+    /**
+     * refaz o estado repetindo as acoes desde o primeiro pai que tem estado,
+     * os estados dos pais nao sao guardados
+     */
+    private Estado reconstroi() {
+        if (estado != null) {
+            return estado;
+        }
+        return ((Reconstrutivel)pai.reconstroi()).aplica(acao);
+    }
+
     void invertePaternidade() {
         if (pai.pai != null) {
             pai.invertePaternidade();
@@ -141,6 +181,6 @@ public class Nodo implements Comparable<Object> {
     }
     
     public String toString() {
-        return estado.toString();
+        return getEstado().toString();
     }
 }
@@ -0,0 +1,206 @@
+package busca;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *   Ponto de controle de uma busca, para retomar uma busca longa que foi
+ *   interrompida (ver Busca.setPontoDeControle)
+ *
+ *   Periodicamente a busca e parada somente para copiar a lista de
+ *   abertos, os fechados compactos, o status e os dados globais do
+ *   problema (ver DadosGlobais). A copia e gravada por outra thread num
+ *   arquivo binario, primeiro num arquivo temporario que depois substitui
+ *   o anterior, entao o arquivo sempre tem o ultimo ponto completo.
+ *
+ *   Os nodos abertos sao gravados como as acoes que os geram a partir do
+ *   nodo inicial (ver Reconstrutivel) e refeitos quando a busca e retomada.
+ *   Os fechados sao gravados como assinaturas, entao a busca usa fechados
+ *   compactos.
+ */
+public class PontoDeControle {
+
+    private static final int VERSAO = 2;
+
+    private final Path arquivo;
+    private final long intervalo;
+    private long ultimo;
+    private ExecutorService gravador = null;
+    private Future<?> gravacao = null;
+
+    /**
+     * @param arquivo the checkpoint file, if it exists the search resumes from it
+     * @param intervalo time between checkpoints in milliseconds
+     */
+    public PontoDeControle(Path arquivo, long intervalo) {
+        this.arquivo = arquivo;
+        this.intervalo = intervalo;
+        this.ultimo = System.currentTimeMillis();
+    }
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+
+    /**
+     * grava os dados copiados de uma parte da busca
+     */
+    public interface Gravador {
+        void grava(DataOutput out) throws IOException;
+    }
+
+    /**
+     * se ja passou o intervalo e o ponto anterior ja foi gravado
+     */
+    boolean deveGravar() {
+        return System.currentTimeMillis() - ultimo >= intervalo && !gravando();
+    }
+
+    /**
+     * se um ponto de controle esta sendo gravado por outra thread, enquanto
+     * isso os nodos copiados nao podem ser compactados
+     */
+    boolean gravando() {
+        return gravacao != null && !gravacao.isDone();
+    }
+
+    /**
+     * grava, em outra thread, as copias feitas com a busca parada
+     */
+    void grava(Status status, Gravador fechados, Gravador abertos, Gravador globais) {
+        final int visitados = status.nroVisitados;
+        final int profundidade = status.profundidadeMax;
+        final long tempo = status.getTempoDecorrido();
+        if (gravador == null) {
+            gravador = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "ponto de controle");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        gravacao = gravador.submit(() -> {
+            Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            try (OutputStream os = Files.newOutputStream(temporario);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+                out.writeInt(VERSAO);
+                out.writeInt(visitados);
+                out.writeInt(profundidade);
+                out.writeLong(tempo);
+                fechados.grava(out);
+                abertos.grava(out);
+                out.writeBoolean(globais != null);
+                if (globais != null) {
+                    globais.grava(out);
+                }
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return null;
+        });
+        ultimo = System.currentTimeMillis();
+    }
+
+    /**
+     * espera a gravacao em andamento
+     * @param apaga true to delete the file, the search is complete
+     */
+    void termina(boolean apaga) {
+        try {
+            if (gravacao != null) {
+                gravacao.get();
+            }
+        } catch (Exception e) {
+            System.err.println("Erro gravando o ponto de controle " + arquivo + ": " + e);
+        }
+        gravacao = null;
+        if (gravador != null) {
+            gravador.shutdown();
+            gravador = null;
+        }
+        if (apaga) {
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException e) {
+                System.err.println("Erro apagando o ponto de controle " + arquivo + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * retoma a busca do arquivo, se ele existe
+     * @param raiz the initial node, the open nodes are rebuilt from it
+     * @param status gets the counters of the checkpoint
+     * @param abertos gets the open nodes
+     * @return the closed list, or null if there is no checkpoint
+     */
+    FechadosCompacto retoma(Nodo raiz, Status status, Fronteira abertos) throws IOException {
+        if (!Files.exists(arquivo)) {
+            return null;
+        }
+        try (InputStream is = Files.newInputStream(arquivo);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(is, 1 << 16))) {
+            if (in.readInt() != VERSAO) {
+                throw new IOException("Versao desconhecida do ponto de controle " + arquivo);
+            }
+            status.nroVisitados = in.readInt();
+            status.profundidadeMax = in.readInt();
+            status.tempoInicio = new Date(System.currentTimeMillis() - in.readLong());
+
+            FechadosCompacto fechados = FechadosCompacto.le(in);
+
+            CaminhoRefeito caminho = new CaminhoRefeito(raiz);
+            int[] acoes = new int[16];
+            long n = in.readLong();
+            for (long i = 0; i < n; i++) {
+                int nroAcoes = in.readInt();
+                if (acoes.length < nroAcoes) {
+                    acoes = new int[nroAcoes];
+                }
+                for (int j = 0; j < nroAcoes; j++) {
+                    acoes[j] = in.readInt();
+                }
+                abertos.insere(nroAcoes == 0 ? raiz : caminho.refaz(acoes, nroAcoes));
+            }
+
+            if (in.readBoolean()) {
+                ((DadosGlobais)raiz.estado).leDadosGlobais(in);
+            }
+            return fechados;
+        }
+    }
+
+    /**
+     * grava os nodos copiados (somente as referencias), as acoes de cada
+     * um sao calculadas pela thread que grava
+     * @param nodos a copy of the open nodes, not changed by the search
+     * @return writes the number of nodes and then, for each one, the number of actions and the actions
+     */
+    static Gravador gravaNodos(final List<Nodo> nodos) {
+        return out -> {
+            out.writeLong(nodos.size());
+            for (Nodo n : nodos) {
+                gravaAcoes(out, CaminhoRefeito.acoes(n), n.profundidade);
+            }
+        };
+    }
+
+    static void gravaAcoes(DataOutput out, int[] acoes, int n) throws IOException {
+        out.writeInt(n);
+        for (int i = 0; i < n; i++) {
+            out.writeInt(acoes[i]);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package busca;
+
+/**
+ *   Estado que pode ser refeito a partir do pai pela acao que o gerou.
+ *
+ *   Os nodos destes estados podem ser compactados (ver
+ *   Busca.usarNodosCompactos): guardam somente o codigo da acao, e o estado
+ *   e refeito a partir do primeiro pai que tem estado quando o nodo e
+ *   explorado (ver Busca.materializa).
+ */
+public interface Reconstrutivel {
+
+    /**
+     * codigo da acao que gerou este estado a partir do pai
+     * @return a non-negative code, or -1 if the state cannot be rebuilt
+     */
+    public int acao();
+
+    /**
+     * refaz o sucessor deste estado gerado pela acao, deve ser igual (e ter
+     * o mesmo custo) ao sucessor gerado na busca
+     * @param acao the code returned by acao() of the successor
+     * @return the successor
+     */
+    public Estado aplica(int acao);
+}
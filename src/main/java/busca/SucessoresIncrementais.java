@@ -0,0 +1,19 @@
+package busca;
+
+import java.util.Iterator;
+
+/**
+ *   Estado que gera os sucessores um a um, somente quando pedidos.
+ *
+ *   As buscas que nao precisam de todos os sucessores de uma vez (por
+ *   exemplo em profundidade) nao criam os sucessores que nunca serao
+ *   explorados.
+ */
+public interface SucessoresIncrementais {
+
+    /**
+     * gera os sucessores sob demanda, na mesma ordem de sucessores()
+     * @return iterator of states
+     */
+    public Iterator<Estado> iteradorSucessores();
+}
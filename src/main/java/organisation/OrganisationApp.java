@@ -3,8 +3,7 @@ package organisation;
 import java.util.ArrayList;
 import java.util.List;
 
-import annotations.Intent;
-import annotations.Sector;
+import annotations.AnnotationRegistry;
 import annotations.Workload;
 import organisation.goal.GoalNode;
 import organisation.goal.GoalTree;
@@ -51,29 +50,29 @@ public class OrganisationApp {
 			GoalNode manage_sector_nw = new GoalNode(null, "manage_sector_NW");
 			GoalTree gTree = GoalTree.getInstance();
 			manage_sector_nw.addAnnotation(new Workload("manage_sector",0.6));
-			manage_sector_nw.addAnnotation(new Sector("nw"));
+			manage_sector_nw.addAnnotation(AnnotationRegistry.sector("nw"));
 			gTree.setRootNode(manage_sector_nw);
 			gTree.addGoal("manage_sector_NE", "manage_sector_NW");
 			gTree.findAGoalByName(manage_sector_nw, "manage_sector_NE").addAnnotation(new Workload("manage_sector",0.6));
-			gTree.findAGoalByName(manage_sector_nw, "manage_sector_NE").addAnnotation(new Sector("ne"));
+			gTree.findAGoalByName(manage_sector_nw, "manage_sector_NE").addAnnotation(AnnotationRegistry.sector("ne"));
 			gTree.addGoal("manage_sector_SW", "manage_sector_NW");
 			gTree.findAGoalByName(manage_sector_nw, "manage_sector_SW").addAnnotation(new Workload("manage_sector",0.6));
-			gTree.findAGoalByName(manage_sector_nw, "manage_sector_SW").addAnnotation(new Sector("sw"));
+			gTree.findAGoalByName(manage_sector_nw, "manage_sector_SW").addAnnotation(AnnotationRegistry.sector("sw"));
 			gTree.addGoal("manage_sector_SE", "manage_sector_NW");
 			gTree.findAGoalByName(manage_sector_nw, "manage_sector_SE").addAnnotation(new Workload("manage_sector",0.6));
-			gTree.findAGoalByName(manage_sector_nw, "manage_sector_SE").addAnnotation(new Sector("se"));
+			gTree.findAGoalByName(manage_sector_nw, "manage_sector_SE").addAnnotation(AnnotationRegistry.sector("se"));
 			gTree.addGoal("track_1", "manage_sector_SE");
 			gTree.findAGoalByName(manage_sector_nw, "track_1").addAnnotation(new Workload("manage_track",0.2));
-			gTree.findAGoalByName(manage_sector_nw, "track_1").addAnnotation(new Sector("se"));
+			gTree.findAGoalByName(manage_sector_nw, "track_1").addAnnotation(AnnotationRegistry.sector("se"));
 			gTree.addGoal("track_2", "manage_sector_SE");
 			gTree.findAGoalByName(manage_sector_nw, "track_2").addAnnotation(new Workload("manage_track",0.2));
-			gTree.findAGoalByName(manage_sector_nw, "track_2").addAnnotation(new Sector("se"));
+			gTree.findAGoalByName(manage_sector_nw, "track_2").addAnnotation(AnnotationRegistry.sector("se"));
 			gTree.addGoal("track_3", "manage_sector_NW");
 			gTree.findAGoalByName(manage_sector_nw, "track_3").addAnnotation(new Workload("manage_track",0.2));
-			gTree.findAGoalByName(manage_sector_nw, "track_3").addAnnotation(new Sector("nw"));
+			gTree.findAGoalByName(manage_sector_nw, "track_3").addAnnotation(AnnotationRegistry.sector("nw"));
 			//gTree.addGoal("track_4", "manage_sector_NW");
 			//gTree.findAGoalByName(manage_sector_nw, "track_4").addAnnotation(new Workload("manage_track",0.2));
-			//gTree.findAGoalByName(manage_sector_nw, "track_4").addAnnotation(new Sector("nw"));
+			//gTree.findAGoalByName(manage_sector_nw, "track_4").addAnnotation(AnnotationRegistry.sector("nw"));
 
 			// perform organisation generation (free design)
 			Organisation org = orgGen.generateOrganisationFromTree("sample", preferences, search, Parameters.isOneSolution());
@@ -81,48 +80,48 @@ public class OrganisationApp {
 			// set available agents for this example
 			AgentSet agents = AgentSet.getInstance();
 			//sector nw
-			agents.addAgent("sensor_02_12").addAnnotation(new Sector("nw"));
-			agents.addAgent("sensor_02_18").addAnnotation(new Sector("nw"));
+			agents.addAgent("sensor_02_12").addAnnotation(AnnotationRegistry.sector("nw"));
+			agents.addAgent("sensor_02_18").addAnnotation(AnnotationRegistry.sector("nw"));
 
 			Agent a = agents.addAgent("sensor_05_15");
-			a.addAnnotation(new Sector("nw"));
-			a.addAnnotation(new Intent("manage_sector"));
+			a.addAnnotation(AnnotationRegistry.sector("nw"));
+			a.addAnnotation(AnnotationRegistry.intent("manage_sector"));
 			
-			agents.addAgent("sensor_08_12").addAnnotation(new Sector("nw"));
-			agents.addAgent("sensor_08_18").addAnnotation(new Sector("nw"));
+			agents.addAgent("sensor_08_12").addAnnotation(AnnotationRegistry.sector("nw"));
+			agents.addAgent("sensor_08_18").addAnnotation(AnnotationRegistry.sector("nw"));
 			
 			//sector ne
-			agents.addAgent("sensor_12_12").addAnnotation(new Sector("ne"));
-			agents.addAgent("sensor_12_18").addAnnotation(new Sector("ne"));
+			agents.addAgent("sensor_12_12").addAnnotation(AnnotationRegistry.sector("ne"));
+			agents.addAgent("sensor_12_18").addAnnotation(AnnotationRegistry.sector("ne"));
 			
 			a = agents.addAgent("sensor_15_15");
-			a.addAnnotation(new Sector("ne"));
-			a.addAnnotation(new Intent("manage_sector"));
+			a.addAnnotation(AnnotationRegistry.sector("ne"));
+			a.addAnnotation(AnnotationRegistry.intent("manage_sector"));
 			
-			agents.addAgent("sensor_18_12").addAnnotation(new Sector("ne"));
-			agents.addAgent("sensor_18_18").addAnnotation(new Sector("ne"));
+			agents.addAgent("sensor_18_12").addAnnotation(AnnotationRegistry.sector("ne"));
+			agents.addAgent("sensor_18_18").addAnnotation(AnnotationRegistry.sector("ne"));
 			
 			//sector sw
-			agents.addAgent("sensor_02_02").addAnnotation(new Sector("sw"));
-			agents.addAgent("sensor_02_08").addAnnotation(new Sector("sw"));
+			agents.addAgent("sensor_02_02").addAnnotation(AnnotationRegistry.sector("sw"));
+			agents.addAgent("sensor_02_08").addAnnotation(AnnotationRegistry.sector("sw"));
 
 			a = agents.addAgent("sensor_05_05");
-			a.addAnnotation(new Sector("sw"));
-			a.addAnnotation(new Intent("manage_sector"));
+			a.addAnnotation(AnnotationRegistry.sector("sw"));
+			a.addAnnotation(AnnotationRegistry.intent("manage_sector"));
 			
-			agents.addAgent("sensor_08_02").addAnnotation(new Sector("sw"));
-			agents.addAgent("sensor_08_08").addAnnotation(new Sector("sw"));
+			agents.addAgent("sensor_08_02").addAnnotation(AnnotationRegistry.sector("sw"));
+			agents.addAgent("sensor_08_08").addAnnotation(AnnotationRegistry.sector("sw"));
 			
 			//sector se
-			agents.addAgent("sensor_12_02").addAnnotation(new Sector("se"));
-			agents.addAgent("sensor_12_08").addAnnotation(new Sector("se"));
+			agents.addAgent("sensor_12_02").addAnnotation(AnnotationRegistry.sector("se"));
+			agents.addAgent("sensor_12_08").addAnnotation(AnnotationRegistry.sector("se"));
 
 			a = agents.addAgent("sensor_15_05");
-			a.addAnnotation(new Sector("se"));
-			a.addAnnotation(new Intent("manage_sector"));
+			a.addAnnotation(AnnotationRegistry.sector("se"));
+			a.addAnnotation(AnnotationRegistry.intent("manage_sector"));
 
-			agents.addAgent("sensor_18_02").addAnnotation(new Sector("se"));
-			agents.addAgent("sensor_18_08").addAnnotation(new Sector("se"));
+			agents.addAgent("sensor_18_02").addAnnotation(AnnotationRegistry.sector("se"));
+			agents.addAgent("sensor_18_08").addAnnotation(AnnotationRegistry.sector("se"));
 			
 			// bind agents and positions
 			orgBin.bindOrganisations(org, agents);
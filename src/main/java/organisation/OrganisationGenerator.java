@@ -1,12 +1,24 @@
 package organisation;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 
 import busca.AEstrela;
+import busca.AEstrelaAnytime;
+import busca.AEstrelaIterativo;
+import busca.AEstrelaMemoriaLimitada;
+import busca.AEstrelaParalela;
+import busca.BuscaExaustivaParalela;
+import busca.BuscaFeixe;
 import busca.BuscaLargura;
+import busca.BuscaLarguraCamadas;
+import busca.BuscaLarguraExterna;
 import busca.BuscaProfundidade;
+import busca.FronteiraForaDoHeap;
 import busca.MostraStatusConsole;
 import busca.Nodo;
+import busca.PontoDeControle;
 import organisation.goal.GoalTree;
 import organisation.search.Organisation;
 import organisation.search.cost.Cost;
@@ -41,13 +53,49 @@ public class OrganisationGenerator {
 		Nodo n = null;
 		if (search.equals("BFS")) {
 			BuscaLargura busca = new BuscaLargura();
+			busca.usarFechadosCompactos(Parameters.isCompactClosedSet());
+			busca.usarNodosCompactos(Parameters.isCompactNodes());
+			if (Parameters.isOffHeapOpenList())
+				busca.setFronteira(() -> new FronteiraForaDoHeap(false));
+			if (Parameters.getCheckpointFile() != null)
+				busca.setPontoDeControle(new PontoDeControle(Paths.get(Parameters.getCheckpointFile()), Parameters.getCheckpointInterval()));
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
 			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
 			n = busca.busca(inicial);
 			status.para();
 		}
 
+		// breadth-first by layers (number of assigned goals), only the next layer is kept as closed list
+		if (search.equals("LBFS")) {
+			BuscaLarguraCamadas busca = new BuscaLarguraCamadas();
+			busca.usarFechadosCompactos(Parameters.isCompactClosedSet());
+			busca.usarNodosCompactos(Parameters.isCompactNodes());
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
+			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
+			n = busca.busca(inicial);
+			status.para();
+		}
+
+		// breadth-first by layers written to files, for state spaces that do not fit in memory
+		if (search.equals("EBFS")) {
+			BuscaLarguraExterna busca = new BuscaLarguraExterna();
+			busca.setMaxRegistros(Parameters.getExternalSearchRecords());
+			if (Parameters.getExternalSearchDirectory() != null)
+				busca.setDiretorio(Paths.get(Parameters.getExternalSearchDirectory()));
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
+			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
+			try {
+				n = busca.busca(inicial);
+			} catch (IOException e) {
+				LOG.fatal("Fatal error on external-memory search! " + e.getMessage());
+			}
+			status.para();
+		}
+
 		if (search.equals("DFS")) {
 			BuscaProfundidade busca = new BuscaProfundidade();
+			busca.usarFechadosCompactos(Parameters.isCompactClosedSet());
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
 			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
 			n = busca.busca(inicial);
 			status.para();
@@ -55,6 +103,72 @@ public class OrganisationGenerator {
 		
 		if (search.equals("A*")) {
 			AEstrela busca = new AEstrela();
+			busca.usarFechadosCompactos(Parameters.isCompactClosedSet());
+			busca.usarNodosCompactos(Parameters.isCompactNodes());
+			if (Parameters.isOffHeapOpenList())
+				busca.setFronteira(() -> new FronteiraForaDoHeap(true));
+			if (Parameters.getCheckpointFile() != null)
+				busca.setPontoDeControle(new PontoDeControle(Paths.get(Parameters.getCheckpointFile()), Parameters.getCheckpointInterval()));
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
+			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
+			n = busca.busca(inicial);
+			status.para();
+		}
+
+		// parallel exhaustive search with work stealing, to enumerate all the solutions (oneSolution = false)
+		if (search.equals("PES")) {
+			BuscaExaustivaParalela busca = new BuscaExaustivaParalela(Runtime.getRuntime().availableProcessors());
+			busca.usarFechadosCompactos(Parameters.isCompactClosedSet());
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
+			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
+			n = busca.busca(inicial);
+			status.para();
+		}
+
+		if (search.equals("HDA*")) {
+			AEstrelaParalela busca = new AEstrelaParalela(Runtime.getRuntime().availableProcessors());
+			busca.usarFechadosCompactos(Parameters.isCompactClosedSet());
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
+			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
+			n = busca.busca(inicial);
+			status.para();
+		}
+
+		if (search.equals("IDA*")) {
+			AEstrelaIterativo busca = new AEstrelaIterativo();
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
+			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
+			n = busca.busca(inicial);
+			status.para();
+		}
+
+		if (search.equals("SMA*")) {
+			AEstrelaMemoriaLimitada busca = new AEstrelaMemoriaLimitada(Parameters.getMaxStoredNodes());
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
+			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
+			n = busca.busca(inicial);
+			status.para();
+		}
+
+		if (search.equals("ARA*")) {
+			AEstrelaAnytime busca = new AEstrelaAnytime(Parameters.getAnytimeInitialWeight(),
+					Parameters.getAnytimeWeightDecrement()) {
+				protected void novaSolucao(Nodo n, double limite) {
+					LOG.info("\n\nSolution found with cost " + n.g() + " (at most " + limite
+							+ " times the optimal cost): " + n.getEstado());
+				}
+			};
+			busca.usarFechadosCompactos(Parameters.isCompactClosedSet());
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
+			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
+			n = busca.busca(inicial);
+			status.para();
+		}
+
+		if (search.equals("BEAM")) {
+			BuscaFeixe busca = new BuscaFeixe(Parameters.getBeamWidth());
+			busca.usarFechadosCompactos(Parameters.isCompactClosedSet());
+			busca.setMaxTempo(Parameters.getMaxSearchTime());
 			MostraStatusConsole status = new MostraStatusConsole(busca.getStatus());
 			n = busca.busca(inicial);
 			status.para();
@@ -68,8 +68,8 @@ public class OrganisationPlot {
 
 				out.write("</table>> ];\n");
 
-				if (or.getParent() != null)
-					links.add("\"" + or.getParent().getPositionName() + "\"->\"" + or.getPositionName() + "\"");
+				if (or.hasParent())
+					links.add("\"" + or.getParentName() + "\"->\"" + or.getPositionName() + "\"");
 			}
 
 			for (final String l : links)
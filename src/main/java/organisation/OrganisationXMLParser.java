@@ -77,8 +77,40 @@ public class OrganisationXMLParser {
                 			Parameters.setMaxWorkload(Double.parseDouble(eParameter.getAttribute("value")));
                 		if (eParameter.getAttribute("id").equals("workloadGrain")) 
                 			Parameters.setWorkloadGrain(Double.parseDouble(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("workloadScale")) 
+                			Parameters.setWorkloadScale(Integer.parseInt(eParameter.getAttribute("value")));
                 		if (eParameter.getAttribute("id").equals("oneSolution")) 
                 			Parameters.setOneSolution(Boolean.parseBoolean(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("interchangeableGoals")) 
+                			Parameters.setInterchangeableGoals(Boolean.parseBoolean(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("fixedGoalOrder")) 
+                			Parameters.setFixedGoalOrder(Boolean.parseBoolean(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("compactClosedSet")) 
+                			Parameters.setCompactClosedSet(Boolean.parseBoolean(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("compactNodes")) 
+                			Parameters.setCompactNodes(Boolean.parseBoolean(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("offHeapOpenList")) 
+                			Parameters.setOffHeapOpenList(Boolean.parseBoolean(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("parallelSuccessors")) 
+                			Parameters.setParallelSuccessors(Boolean.parseBoolean(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("beamWidth")) 
+                			Parameters.setBeamWidth(Integer.parseInt(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("maxStoredNodes")) 
+                			Parameters.setMaxStoredNodes(Integer.parseInt(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("externalSearchDirectory")) 
+                			Parameters.setExternalSearchDirectory(eParameter.getAttribute("value"));
+                		if (eParameter.getAttribute("id").equals("externalSearchRecords")) 
+                			Parameters.setExternalSearchRecords(Integer.parseInt(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("checkpointFile")) 
+                			Parameters.setCheckpointFile(eParameter.getAttribute("value"));
+                		if (eParameter.getAttribute("id").equals("checkpointInterval")) 
+                			Parameters.setCheckpointInterval(Long.parseLong(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("maxSearchTime")) 
+                			Parameters.setMaxSearchTime(Long.parseLong(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("anytimeInitialWeight")) 
+                			Parameters.setAnytimeInitialWeight(Double.parseDouble(eParameter.getAttribute("value")));
+                		if (eParameter.getAttribute("id").equals("anytimeWeightDecrement")) 
+                			Parameters.setAnytimeWeightDecrement(Double.parseDouble(eParameter.getAttribute("value")));
             		}
             	}
             }
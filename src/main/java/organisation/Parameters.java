@@ -1,5 +1,7 @@
 package organisation;
 
+import busca.AEstrelaAnytime;
+
 /**
  * @author cleber
  *
@@ -15,6 +17,57 @@ public class Parameters {
 	private static double maxWorkload = 1;
 	// dataload granularity, for breaking goals (max grain size)
 	private static double workloadGrain = 1;
+	// workloads and maxWorkload are quantised to integer units of 1/workloadScale (e.g. 1000 for thousandths)
+	// and compared exactly, 0 to compare them as doubles
+	private static int workloadScale = 0;
+	// units of the sums of workloads kept as counters when workloadScale is not set (millionths)
+	private static final int DEFAULT_WORKLOAD_UNITS_SCALE = 1000000;
+
+	// goals with different names but same parent and annotations are interchangeable, i.e., organisations
+	// that differ only by the names of these goals are generated only once
+	private static boolean interchangeableGoals = false;
+
+	// assign goals in one fixed order, most constrained first, branching only on positions and operators
+	// (much smaller search, but charts that need another order are not generated)
+	private static boolean fixedGoalOrder = false;
+
+	// keep only a 64-bit key and the cost of visited states in the closed list
+	private static boolean compactClosedSet = false;
+
+	// keep only the transformation of the states in the open list of BFS and A*, states are rebuilt when explored
+	// (use with compactClosedSet, otherwise the closed list keeps the states anyway)
+	private static boolean compactNodes = false;
+
+	// keep the open list of BFS and A* in direct buffers, out of the heap (use with compactClosedSet)
+	private static boolean offHeapOpenList = false;
+
+	// create and cost the successors of each state in parallel, on a pool with one thread per core (the order
+	// of the successors does not change)
+	private static boolean parallelSuccessors = false;
+
+	// number of states kept in each depth by beam search
+	private static int beamWidth = 100;
+
+	// max number of states stored at once by memory-bounded search (SMA*)
+	private static int maxStoredNodes = 100000;
+
+	// external-memory search: directory of the layer files (null for a temporary one) and number of states of the
+	// next layer kept in memory before writing a sorted run
+	private static String externalSearchDirectory = null;
+	private static int externalSearchRecords = 1 << 20;
+
+	// checkpoint file of BFS and A* (null for no checkpoints), the search resumes from it if it exists, and time in
+	// milliseconds between checkpoints (the closed list becomes compact)
+	private static String checkpointFile = null;
+	private static long checkpointInterval = 10 * 60 * 1000;
+
+	// max time in milliseconds for searching, -1 for no limit (anytime search returns the best found so far)
+	private static long maxSearchTime = -1;
+
+	// weight of the heuristic in the first iteration of anytime search (ARA*) and how much it decreases in each iteration,
+	// h is multiplied by the weight (see AEstrelaAnytime for the defaults)
+	private static double anytimeInitialWeight = AEstrelaAnytime.PESO_INICIAL_PADRAO;
+	private static double anytimeWeightDecrement = AEstrelaAnytime.DECREMENTO_PADRAO;
 
 	// Minimal penalty for creating a new state
 	private static int minimalPenalty = 1;
@@ -56,6 +109,158 @@ public class Parameters {
 		Parameters.maxWorkload = maxWorkload;
 	}
 
+	public static int getWorkloadScale() {
+		return workloadScale;
+	}
+
+	public static void setWorkloadScale(int workloadScale) {
+		Parameters.workloadScale = Math.max(0, workloadScale);
+	}
+
+	/**
+	 * The number of workload units in 1, it is workloadScale if it is set,
+	 * otherwise units are millionths and are used only to sum workloads
+	 * 
+	 * @return a positive integer
+	 */
+	public static int getWorkloadUnitsScale() {
+		return (workloadScale > 0) ? workloadScale : DEFAULT_WORKLOAD_UNITS_SCALE;
+	}
+
+	/**
+	 * A workload quantised to integer units (see getWorkloadUnitsScale)
+	 * 
+	 * @param workload a workload value
+	 * @return the nearest number of units
+	 */
+	public static long toWorkloadUnits(double workload) {
+		return Math.round(workload * getWorkloadUnitsScale());
+	}
+
+	public static long getMaxWorkloadUnits() {
+		return toWorkloadUnits(maxWorkload);
+	}
+
+	public static boolean isCompactClosedSet() {
+		return compactClosedSet;
+	}
+
+	public static void setCompactClosedSet(boolean compactClosedSet) {
+		Parameters.compactClosedSet = compactClosedSet;
+	}
+
+	public static boolean isCompactNodes() {
+		return compactNodes;
+	}
+
+	public static void setCompactNodes(boolean compactNodes) {
+		Parameters.compactNodes = compactNodes;
+	}
+
+	public static boolean isOffHeapOpenList() {
+		return offHeapOpenList;
+	}
+
+	public static void setOffHeapOpenList(boolean offHeapOpenList) {
+		Parameters.offHeapOpenList = offHeapOpenList;
+	}
+
+	public static boolean isInterchangeableGoals() {
+		return interchangeableGoals;
+	}
+
+	public static void setInterchangeableGoals(boolean interchangeableGoals) {
+		Parameters.interchangeableGoals = interchangeableGoals;
+	}
+
+	public static boolean isFixedGoalOrder() {
+		return fixedGoalOrder;
+	}
+
+	public static void setFixedGoalOrder(boolean fixedGoalOrder) {
+		Parameters.fixedGoalOrder = fixedGoalOrder;
+	}
+
+	public static boolean isParallelSuccessors() {
+		return parallelSuccessors;
+	}
+
+	public static void setParallelSuccessors(boolean parallelSuccessors) {
+		Parameters.parallelSuccessors = parallelSuccessors;
+	}
+
+	public static int getBeamWidth() {
+		return beamWidth;
+	}
+
+	public static void setBeamWidth(int beamWidth) {
+		Parameters.beamWidth = beamWidth;
+	}
+
+	public static String getExternalSearchDirectory() {
+		return externalSearchDirectory;
+	}
+
+	public static void setExternalSearchDirectory(String externalSearchDirectory) {
+		Parameters.externalSearchDirectory = externalSearchDirectory;
+	}
+
+	public static int getExternalSearchRecords() {
+		return externalSearchRecords;
+	}
+
+	public static void setExternalSearchRecords(int externalSearchRecords) {
+		Parameters.externalSearchRecords = externalSearchRecords;
+	}
+
+	public static String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	public static void setCheckpointFile(String checkpointFile) {
+		Parameters.checkpointFile = checkpointFile;
+	}
+
+	public static long getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	public static void setCheckpointInterval(long checkpointInterval) {
+		Parameters.checkpointInterval = checkpointInterval;
+	}
+
+	public static int getMaxStoredNodes() {
+		return maxStoredNodes;
+	}
+
+	public static void setMaxStoredNodes(int maxStoredNodes) {
+		Parameters.maxStoredNodes = maxStoredNodes;
+	}
+
+	public static long getMaxSearchTime() {
+		return maxSearchTime;
+	}
+
+	public static void setMaxSearchTime(long maxSearchTime) {
+		Parameters.maxSearchTime = maxSearchTime;
+	}
+
+	public static double getAnytimeInitialWeight() {
+		return anytimeInitialWeight;
+	}
+
+	public static void setAnytimeInitialWeight(double anytimeInitialWeight) {
+		Parameters.anytimeInitialWeight = anytimeInitialWeight;
+	}
+
+	public static double getAnytimeWeightDecrement() {
+		return anytimeWeightDecrement;
+	}
+
+	public static void setAnytimeWeightDecrement(double anytimeWeightDecrement) {
+		Parameters.anytimeWeightDecrement = anytimeWeightDecrement;
+	}
+
 	public static int getMinimalPenalty() {
 		return minimalPenalty;
 	}
@@ -1,11 +1,14 @@
 package organisation.goal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import annotations.Sector;
 import annotations.Annotation;
+import annotations.AnnotationRegistry;
 import annotations.Workload;
+import organisation.Parameters;
 import organisation.exception.CircularReference;
 
 /**
@@ -19,6 +22,23 @@ public class GoalNode {
 	private String operator;
 	private List<GoalNode> descendants = new ArrayList<>();
 	private List<Annotation> annotations = new ArrayList<>();
+	// random-like 64-bit keys of the names, used to hash search states incrementally
+	private long goalKey;
+	private long originalNameKey;
+	// dense ids given by GoalTree (see GoalTree.updateGoalIds), -1 if not given
+	private int id = -1;
+	private int originalId = -1;
+	// flags of the annotations used to prune the search, updated when annotations are added
+	private boolean sectorManager = false;
+	private boolean trackManager = false;
+	// workloads (codes and values) in the order they were added, the first sector and the sum of workloads
+	private int[] workloadCodes = new int[0];
+	private double[] workloadValues = new double[0];
+	private Sector sector = null;
+	private double sumWorkload = 0;
+	// sum of the workloads in units (see getSumWorkloadUnits) and the units scale it was computed with
+	private long sumWorkloadUnits = 0;
+	private int unitsScale = 0;
 
 	public GoalNode(GoalNode p, String name) {
 		goalName = name;
@@ -26,6 +46,7 @@ public class GoalNode {
 			originalName = name.substring(0, name.lastIndexOf('$'));
 		else
 			originalName = name;
+		updateKeys();
 		parent = p;
 		operator = "sequence";
 		if (parent != null) {
@@ -54,15 +75,47 @@ public class GoalNode {
 	 * @return
 	 */
 	public Sector getSector() {
-		for (Annotation w : annotations) 
-			if (w instanceof Sector) 
-				return (Sector) w;
-		
-		return null;
+		return sector;
 	}
 
+	/**
+	 * Add an annotation, workloads must not be changed after being added
+	 */
 	public void addAnnotation(Annotation annotation) {
 		this.annotations.add(annotation);
+		if (annotation instanceof Workload) {
+			int n = workloadCodes.length;
+			workloadCodes = Arrays.copyOf(workloadCodes, n + 1);
+			workloadValues = Arrays.copyOf(workloadValues, n + 1);
+			workloadCodes[n] = annotation.getCode();
+			workloadValues[n] = ((Workload) annotation).getEffort();
+			sumWorkload += workloadValues[n];
+			unitsScale = 0;
+		} else if (annotation instanceof Sector && sector == null) {
+			sector = (Sector) annotation;
+		}
+		if (annotation.getCode() == AnnotationRegistry.MANAGE_SECTOR)
+			sectorManager = true;
+		else if (annotation.getCode() == AnnotationRegistry.MANAGE_TRACK)
+			trackManager = true;
+	}
+
+	/**
+	 * Check if this goal has an annotation with id manage_sector
+	 * 
+	 * @return true if it is a goal of managing a sector
+	 */
+	public boolean isSectorManager() {
+		return sectorManager;
+	}
+
+	/**
+	 * Check if this goal has an annotation with id manage_track
+	 * 
+	 * @return true if it is a goal of managing a track
+	 */
+	public boolean isTrackManager() {
+		return trackManager;
 	}
 	
 	public Annotation getAnnotation(String id) {
@@ -77,10 +130,39 @@ public class GoalNode {
 	}
 	
 	public double getSumWorkload() {
-		double sumEfforts = 0;
-		for (Workload w : getWorkloads())
-			sumEfforts += (double) w.getValue();
-		return sumEfforts;
+		return sumWorkload;
+	}
+
+	/**
+	 * The sum of workloads in integer units (see Parameters.toWorkloadUnits),
+	 * each workload is quantised before summing. The sum is kept, it is computed
+	 * again only if a workload is added or the units scale has changed.
+	 * 
+	 * @return a long, exact regardless of the order of the workloads
+	 */
+	public long getSumWorkloadUnits() {
+		if (unitsScale != Parameters.getWorkloadUnitsScale()) {
+			unitsScale = Parameters.getWorkloadUnitsScale();
+			sumWorkloadUnits = 0;
+			for (double v : workloadValues)
+				sumWorkloadUnits += Parameters.toWorkloadUnits(v);
+		}
+		return sumWorkloadUnits;
+	}
+
+	public int getNumberOfWorkloads() {
+		return workloadCodes.length;
+	}
+
+	/**
+	 * The code of the i-th workload (see AnnotationRegistry)
+	 */
+	public int getWorkloadCode(int i) {
+		return workloadCodes[i];
+	}
+
+	public double getWorkloadValue(int i) {
+		return workloadValues[i];
 	}
 	
 	public void addDescendant(GoalNode newDescendent) {
@@ -101,11 +183,73 @@ public class GoalNode {
 			originalName = name.substring(0, name.indexOf('$'));
 		else
 			originalName = name;
+		updateKeys();
 	} 
 	
 	public String getOriginalName() {
 		return originalName;
 	}
+
+	/**
+	 * A 64-bit key of the goal name (Zobrist-like key)
+	 * 
+	 * @return a long that is the same for any goal with the same name
+	 */
+	public long getGoalKey() {
+		return goalKey;
+	}
+
+	/**
+	 * A 64-bit key of the original name, broken goals (name$N) share the same key
+	 * 
+	 * @return a long that is the same for any goal with the same original name
+	 */
+	public long getOriginalNameKey() {
+		return originalNameKey;
+	}
+
+	/**
+	 * A dense id of this goal in the goals tree, used as index of bit sets
+	 * 
+	 * @return an integer from 0 to the number of goals - 1, or -1 if not given
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * A dense id of the original name, broken goals (name$N) share the same id
+	 * 
+	 * @return an integer from 0 to the number of original goals - 1, or -1 if not given
+	 */
+	public int getOriginalId() {
+		return originalId;
+	}
+
+	void setIds(int id, int originalId) {
+		this.id = id;
+		this.originalId = originalId;
+	}
+
+	private void updateKeys() {
+		goalKey = hash64(goalName);
+		originalNameKey = hash64(originalName);
+	}
+
+	/**
+	 * FNV-1a followed by a splitmix64 finalizer, keys must be deterministic since
+	 * different GoalNode objects may represent the same goal
+	 */
+	private static long hash64(String s) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+		h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+		return h ^ (h >>> 31);
+	}
 	public GoalNode getParent() {
 		return parent;
 	}
@@ -126,7 +270,7 @@ public class GoalNode {
 	}
 	
 	public boolean containsWorkload() {
-		return (this.getWorkloads().size() > 0);
+		return (this.workloadCodes.length > 0);
 	}
 	
 	public String toString() {
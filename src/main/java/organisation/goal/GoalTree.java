@@ -1,10 +1,15 @@
 package organisation.goal;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import annotations.Annotation;
 import annotations.Workload;
 import organisation.Parameters;
 import organisation.exception.CircularReference;
@@ -21,6 +26,10 @@ public class GoalTree {
     private Set<GoalNode> tree = new HashSet<>();
     Set<Workload> allDiffWorkloads = new HashSet<>();
     Set<String> allOriginalGoals = new HashSet<>();
+    // goals indexed by their ids (see updateGoalIds)
+    private List<GoalNode> goalsById = new ArrayList<>();
+    // for each interchangeable goal, the previous goal of its equivalence class
+    private Map<GoalNode, GoalNode> equivalentPredecessors = new HashMap<>();
 
     private GoalTree() {}
     
@@ -238,12 +247,16 @@ public class GoalTree {
 	 * @return a double
 	 */
 	public double getSumEfforts() {
-		double sumEfforts = 0;
-		for (GoalNode g : this.getTree()) {
-			for (Workload w : g.getWorkloads()) 
-				sumEfforts += (double) w.getValue();
-			
+		if (Parameters.getWorkloadScale() > 0) {
+			long units = 0;
+			for (GoalNode g : this.getTree()) 
+				units += g.getSumWorkloadUnits();
+			return (double) units / Parameters.getWorkloadScale();
 		}
+
+		double sumEfforts = 0;
+		for (GoalNode g : this.getTree()) 
+			sumEfforts += g.getSumWorkload();
 		return sumEfforts;
 	}
 
@@ -263,4 +276,105 @@ public class GoalTree {
 	public Set<String> getOriginalGoals() {
 		return allOriginalGoals;
 	}
+
+	/**
+	 * Find the equivalence classes of interchangeable goals. Two goals are
+	 * interchangeable if they have the same parent, no descendants and the same
+	 * annotations (including workload values), so any organisation created
+	 * assigning one of them has a symmetric organisation assigning the other.
+	 * 
+	 * Parts of a broken goal (name$N) have the same original name, so their
+	 * symmetric organisations have the same signature. Goals with different
+	 * names are interchangeable only if Parameters.isInterchangeableGoals().
+	 * 
+	 * Members of each class are ordered by name. It should be called once,
+	 * after the tree is loaded.
+	 */
+	public void updateEquivalentGoals() {
+		Map<String, List<GoalNode>> classes = new HashMap<>();
+		for (GoalNode g : this.tree) {
+			if (g.getParent() == null || !g.getDescendants().isEmpty())
+				continue;
+
+			List<String> annotations = new ArrayList<>();
+			for (Annotation a : g.getAnnotations()) {
+				if (a instanceof Workload)
+					annotations.add(a.getClass().getSimpleName() + "[" + a.getId() + ":" + ((Workload) a).getValue() + "]");
+				else
+					annotations.add(a.getClass().getSimpleName() + "[" + a.getId() + "]");
+			}
+			Collections.sort(annotations);
+
+			String key = g.getParent().getGoalName() + annotations;
+			if (!Parameters.isInterchangeableGoals())
+				key = g.getOriginalName() + "^" + key;
+
+			classes.computeIfAbsent(key, k -> new ArrayList<>()).add(g);
+		}
+
+		equivalentPredecessors.clear();
+		for (List<GoalNode> c : classes.values()) {
+			c.sort((g1, g2) -> g1.getGoalName().compareTo(g2.getGoalName()));
+			for (int i = 1; i < c.size(); i++)
+				equivalentPredecessors.put(c.get(i), c.get(i - 1));
+		}
+	}
+
+	/**
+	 * The goal that comes before the given one in its class of interchangeable
+	 * goals (see updateEquivalentGoals). Assigning goals of a class only in this
+	 * order avoids creating all permutations of them.
+	 * 
+	 * @param g a goal of this tree
+	 * @return the previous interchangeable goal or null if it is the first of its class
+	 */
+	public GoalNode getEquivalentPredecessor(GoalNode g) {
+		return equivalentPredecessors.get(g);
+	}
+
+	/**
+	 * Sort goals to be assigned from the most to the least constrained: goals
+	 * to manage a sector first (only they can be supreme or have
+	 * subordinates), then the ones with higher workload (fewer positions can
+	 * receive them) and then the ones of rarer sectors. The sort is stable, so
+	 * goals with the same constraints keep the given (topological) order.
+	 * 
+	 * @param goals the list to sort, usually the root and its successors
+	 */
+	public void sortByMostConstrained(List<GoalNode> goals) {
+		Map<String, Integer> goalsBySector = new HashMap<>();
+		for (GoalNode g : this.tree)
+			if (g.getSector() != null)
+				goalsBySector.merge(g.getSector().getId(), 1, Integer::sum);
+
+		goals.sort(Comparator
+				.comparing((GoalNode g) -> !g.isSectorManager())
+				.thenComparing(Comparator.comparingDouble(GoalNode::getSumWorkload).reversed())
+				.thenComparingInt(g -> g.getSector() == null ? Integer.MAX_VALUE : goalsBySector.get(g.getSector().getId())));
+	}
+
+	/**
+	 * Give dense ids to the goals, in the given order, and to their original
+	 * names. Sets of goals can then be bit sets, in which goals are iterated
+	 * in this order. It should be called once, after the tree is loaded.
+	 * 
+	 * @param goals all goals of this tree, in the order they are assigned
+	 */
+	public void updateGoalIds(List<GoalNode> goals) {
+		Map<String, Integer> originalIds = new HashMap<>();
+		goalsById = new ArrayList<>(goals);
+		for (int i = 0; i < goals.size(); i++) {
+			GoalNode g = goals.get(i);
+			Integer originalId = originalIds.computeIfAbsent(g.getOriginalName(), k -> originalIds.size());
+			g.setIds(i, originalId);
+		}
+	}
+
+	/**
+	 * @param id a dense id given by updateGoalIds
+	 * @return the goal that has the given id
+	 */
+	public GoalNode getGoalById(int id) {
+		return goalsById.get(id);
+	}
 }
@@ -0,0 +1,118 @@
+package organisation.position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import organisation.goal.GoalNode;
+
+/**
+ * A positions tree that shares its positions with the tree it was cloned from.
+ * 
+ * Cloning copies only references to positions. When a goal is assigned to an
+ * existing position, only that position is copied before changing, all other
+ * positions remain shared with the source tree. Shared positions are never
+ * changed in place, so the source tree (e.g. the parent search state) is not
+ * affected.
+ * 
+ * The subordinates of a copied position keep referring to the position it
+ * replaced, so the superior of a position is found by the index of its parent
+ * (see getSuperior): PositionNode.getParent of a shared position may be an
+ * older version of its superior, only its index and name are valid. Signatures,
+ * keys and nearness are computed by the tree.
+ * 
+ * Descendants of positions are not registered in shared positions (a shared
+ * position may have different subordinates in each tree), the indexes of the
+ * subordinates of each position are kept by the tree. The arrays of indexes are
+ * shared with the source tree too, an array is replaced when a subordinate is
+ * added to its position.
+ * 
+ * @author cleber
+ * 
+ */
+public class PersistentPositionsTree extends PositionsTree {
+
+	// indexes of the direct subordinates of each position, by the index of the position
+	private List<int[]> subordinates = new ArrayList<>();
+	private static final int[] NONE = new int[0];
+
+	public PersistentPositionsTree() {
+	}
+
+	@Override
+	public PositionsTree cloneContent() {
+		PersistentPositionsTree clonedTree = new PersistentPositionsTree();
+
+		clonedTree.tree.addAll(this.tree);
+		clonedTree.subordinates.addAll(this.subordinates);
+		clonedTree.numberOfLevels = this.numberOfLevels;
+		clonedTree.copyKeyAndCounters(this);
+
+		return clonedTree;
+	}
+
+	@Override
+	protected PositionNode newPosition(PositionNode parent, String name) {
+		return new PositionNode(parent, name, false);
+	}
+
+	@Override
+	public void addPositionToTree(PositionNode position) {
+		int size = tree.size();
+		super.addPositionToTree(position);
+		if (tree.size() == size)
+			return;
+
+		subordinates.add(NONE);
+		if (position.getParent() != null) {
+			int parent = position.getParentIndex();
+			int[] old = subordinates.get(parent);
+			int[] s = Arrays.copyOf(old, old.length + 1);
+			s[old.length] = position.getIndex();
+			subordinates.set(parent, s);
+		}
+	}
+
+	/**
+	 * Assign a goal to a copy of the given position, the copy replaces the
+	 * position in this tree
+	 * 
+	 * @param position a position of this tree
+	 * @param newGoal the goal to be assigned
+	 * @return the copy of the position that received the goal
+	 */
+	@Override
+	public PositionNode assignGoalToPosition(PositionNode position, GoalNode newGoal) {
+		position = tree.get(position.getIndex());
+		long superiorKey = getSuperiorKey(position);
+		long oldKey = position.getContentKey(superiorKey);
+		List<PositionNode> subordinates = getSubordinates(position);
+		updateCounters(position, -1);
+		updateFarSubordinates(subordinates, -1);
+
+		// the subordinates are not copied, they find the copy by its index
+		PositionNode copy = position.copyContent(getSuperior(position));
+		assignGoal(copy, newGoal);
+		this.tree.set(copy.getIndex(), copy);
+
+		contentKey += getSubtreeKeyChange(copy, oldKey, copy.getContentKey(superiorKey));
+		updateCounters(copy, 1);
+		updateFarSubordinates(subordinates, 1);
+
+		return copy;
+	}
+
+	@Override
+	protected List<PositionNode> getSubordinates(PositionNode position) {
+		int[] indexes = subordinates.get(position.getIndex());
+		List<PositionNode> s = new ArrayList<>(indexes.length);
+		for (int i : indexes)
+			s.add(this.tree.get(i));
+		return s;
+	}
+
+	@Override
+	public PositionNode getSuperior(PositionNode position) {
+		return (position.getParent() == null) ? null : this.tree.get(position.getParentIndex());
+	}
+}
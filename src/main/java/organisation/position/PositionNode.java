@@ -1,6 +1,10 @@
 package organisation.position;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -8,10 +12,13 @@ import java.util.List;
 import java.util.Set;
 
 import annotations.Annotation;
+import annotations.AnnotationRegistry;
 import annotations.Sector;
 import annotations.Workload;
 import fit.Requirement;
+import organisation.Parameters;
 import organisation.goal.GoalNode;
+import organisation.goal.GoalTree;
 
 /**
  * @author cleber
@@ -23,32 +30,168 @@ public class PositionNode implements Requirement {
 	private String parentName;
 
 	private PositionNode parent;
+	// index of this position in its tree (see PositionsTree.getPosition), -1 if not in a tree yet
+	private int index = -1;
+	// 1 for a supreme, the level of the parent + 1 for subordinates
+	private int level = 1;
 	private List<PositionNode> descendants = new ArrayList<>();
 	private Set<Annotation> annotations = new HashSet<>();
-	private Set<GoalNode> assignedGoals = new HashSet<>();
+	// ids of the assigned goals (see GoalNode.getId), goals without ids (not in a goals
+	// tree) are kept by name, getAssignedGoals is a view of both
+	private BitSet goals = new BitSet();
+	private Set<GoalNode> goalsWithoutIds = new HashSet<>();
+	private int nGoals = 0;
+	private final Set<GoalNode> assignedGoals = new AssignedGoals();
+	// sum of the original name keys of the assigned goals (order independent)
+	private long goalsKey = 0;
+	// original ids of the assigned goals (see GoalNode.getOriginalId)
+	private BitSet originalGoals = new BitSet();
+	// flags of the annotations used to prune the search, updated when annotations are added
+	private boolean sectorManager = false;
+	private boolean trackManager = false;
+	// workloads (codes and values) and sectors (codes) in the iteration order of the
+	// annotations, rebuilt when they change so queries do not allocate, the arrays
+	// are replaced only when they have to grow
+	private int[] workloadCodes = EMPTY;
+	private double[] workloadValues = NO_VALUES;
+	private int nWorkloads = 0;
+	private double sumWorkload = 0;
+	// sum of the workloads in units (see getSumWorkloadUnits) and the units scale it was computed with
+	private long sumWorkloadUnits = 0;
+	private int unitsScale = 0;
+	private int[] sectorCodes = EMPTY;
+	private int nSectors = 0;
+	// sum of the keys of the annotations (see getAnnotationKey), order independent
+	private long annotationsKey = 0;
+	private static final int[] EMPTY = new int[0];
+	private static final double[] NO_VALUES = new double[0];
 
 
 	public PositionNode(PositionNode parent, String positionName) {
 		setParent(parent);
 		this.positionName = positionName;
 	}
+
+	/**
+	 * Create a position that is not added to the descendants of its parent. It is
+	 * used by trees that share positions, in which a parent may belong to many trees.
+	 */
+	PositionNode(PositionNode parent, String positionName, boolean addToParentDescendants) {
+		if (addToParentDescendants) {
+			setParent(parent);
+		} else {
+			this.parent = parent;
+			this.level = (parent == null) ? 1 : parent.getLevel() + 1;
+			setParentName((parent == null) ? "" : parent.getPositionName());
+		}
+		this.positionName = positionName;
+	}
 	
 	public void addWorkload(Workload workload) {
 		Workload w = getWorkload(workload.getId());
 		if (w != null) {
-			w.setValue((double) w.getValue() + (double) workload.getValue());
+			w.setValue(w.getEffort() + workload.getEffort());
+			updateArrays();
 		} else {
-			this.annotations.add(workload);
+			addAnnotation(workload);
 		}
 	}
 	
 	public void addAnnotation(Annotation annotation) {
-		for (Annotation w : annotations) 
-			if (w.getClass().isAssignableFrom(annotation.getClass()) && annotation.getId() == w.getId()) 
-				// There is an annotation of same type and id
-				return;
-		
-		this.annotations.add(annotation);
+		if (add(annotation))
+			updateArrays();
+	}
+
+	/**
+	 * Add copies of the given annotations (see addAnnotation), the arrays are
+	 * rebuilt once for all of them
+	 * 
+	 * @param annotations the annotations of a goal or of another position
+	 */
+	void addCopiesOf(Collection<? extends Annotation> annotations) {
+		boolean changed = false;
+		for (Annotation a : annotations)
+			changed |= add(a.clone());
+		if (changed)
+			updateArrays();
+	}
+
+	/**
+	 * @return true if the arrays must be rebuilt
+	 */
+	private boolean add(Annotation annotation) {
+		// the set keeps the first annotation of same type and id
+		if (!this.annotations.add(annotation))
+			return false;
+
+		if (annotation.getCode() == AnnotationRegistry.MANAGE_SECTOR)
+			sectorManager = true;
+		else if (annotation.getCode() == AnnotationRegistry.MANAGE_TRACK)
+			trackManager = true;
+		if (annotation instanceof Workload || annotation instanceof Sector)
+			return true;
+		annotationsKey += getAnnotationKey(annotation);
+		return false;
+	}
+
+	/**
+	 * Rebuild the arrays of workloads and sectors. The running sum follows the
+	 * iteration order of the annotations, so it is the same sum computed before
+	 * these arrays existed. Workloads of a position must be changed only by
+	 * addWorkload.
+	 */
+	private void updateArrays() {
+		nWorkloads = 0;
+		nSectors = 0;
+		for (Annotation a : annotations) {
+			if (a instanceof Workload)
+				nWorkloads++;
+			else if (a instanceof Sector)
+				nSectors++;
+		}
+
+		if (nWorkloads > workloadCodes.length) {
+			int capacity = Math.max(nWorkloads, 2 * workloadCodes.length);
+			workloadCodes = new int[capacity];
+			workloadValues = new double[capacity];
+		}
+		if (nSectors > sectorCodes.length)
+			sectorCodes = new int[Math.max(nSectors, 2 * sectorCodes.length)];
+		sumWorkload = 0;
+		sumWorkloadUnits = 0;
+		unitsScale = Parameters.getWorkloadUnitsScale();
+		annotationsKey = 0;
+		int w = 0;
+		int s = 0;
+		for (Annotation a : annotations) {
+			annotationsKey += getAnnotationKey(a);
+			if (a instanceof Workload) {
+				workloadCodes[w] = a.getCode();
+				workloadValues[w] = ((Workload) a).getEffort();
+				sumWorkload += workloadValues[w];
+				sumWorkloadUnits += Parameters.toWorkloadUnits(workloadValues[w++]);
+			} else if (a instanceof Sector) {
+				sectorCodes[s++] = a.getCode();
+			}
+		}
+	}
+
+	/**
+	 * Check if this position has an annotation with id manage_sector
+	 * 
+	 * @return true if it is a position of managing a sector
+	 */
+	public boolean isSectorManager() {
+		return sectorManager;
+	}
+
+	/**
+	 * Check if this position has an annotation with id manage_track
+	 * 
+	 * @return true if it is a position of managing a track
+	 */
+	public boolean isTrackManager() {
+		return trackManager;
 	}
 
 	public Workload getWorkload(String id) {
@@ -81,25 +224,140 @@ public class PositionNode implements Requirement {
 	}
 
 	public double getSumWorkload() {
-		double sumEfforts = 0;
-		for (Workload w : getWorkloads())
-			sumEfforts += (double) w.getValue();
-		return sumEfforts;
+		return sumWorkload;
+	}
+
+	/**
+	 * The sum of workloads in integer units (see Parameters.toWorkloadUnits),
+	 * each workload is quantised before summing. The sum is kept when the arrays
+	 * are rebuilt, it is computed again only if the units scale has changed.
+	 * 
+	 * @return a long, exact regardless of the order of the workloads
+	 */
+	public long getSumWorkloadUnits() {
+		if (unitsScale != Parameters.getWorkloadUnitsScale()) {
+			unitsScale = Parameters.getWorkloadUnitsScale();
+			sumWorkloadUnits = 0;
+			for (int i = 0; i < nWorkloads; i++)
+				sumWorkloadUnits += Parameters.toWorkloadUnits(workloadValues[i]);
+		}
+		return sumWorkloadUnits;
+	}
+
+	public int getNumberOfWorkloads() {
+		return nWorkloads;
+	}
+
+	/**
+	 * The code of the i-th workload (see AnnotationRegistry)
+	 */
+	public int getWorkloadCode(int i) {
+		return workloadCodes[i];
+	}
+
+	public double getWorkloadValue(int i) {
+		return workloadValues[i];
+	}
+
+	public int getNumberOfSectors() {
+		return nSectors;
+	}
+
+	/**
+	 * The code of the i-th sector (see AnnotationRegistry), in the order of getSectors
+	 */
+	public int getSectorCode(int i) {
+		return sectorCodes[i];
 	}
 
 	public void assignGoal(GoalNode g) {
-		this.assignedGoals.add(g);
+		if (g.getId() >= 0) {
+			if (this.goals.get(g.getId()))
+				return;
+			this.goals.set(g.getId());
+			this.originalGoals.set(g.getOriginalId());
+		} else if (!this.goalsWithoutIds.add(g)) {
+			return;
+		}
+		this.nGoals++;
+		this.goalsKey += g.getOriginalNameKey();
+	}
+
+	/**
+	 * Number of different original goals (name$N are parts of the same goal)
+	 * assigned to this position
+	 * 
+	 * @return an integer
+	 */
+	public int getNumberOfOriginalGoals() {
+		if (goalsWithoutIds.isEmpty())
+			return originalGoals.cardinality();
+
+		Set<String> originalNames = new HashSet<>();
+		for (GoalNode g : assignedGoals)
+			originalNames.add(g.getOriginalName());
+		return originalNames.size();
 	}
 
+	/**
+	 * The goals assigned to this position, goals with ids are iterated in the
+	 * order of their ids (see GoalTree.getGoalById)
+	 * 
+	 * @return a set that must not be changed (see assignGoal)
+	 */
 	public Set<GoalNode> getAssignedGoals() {
 		return this.assignedGoals;
 	}
 
+	/**
+	 * A view of the bit set of goals and of the goals without ids
+	 */
+	private class AssignedGoals extends AbstractSet<GoalNode> {
+		@Override
+		public int size() {
+			return nGoals;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof GoalNode))
+				return false;
+			GoalNode g = (GoalNode) o;
+			return (g.getId() >= 0 && goals.get(g.getId())) || goalsWithoutIds.contains(g);
+		}
+
+		@Override
+		public Iterator<GoalNode> iterator() {
+			return new Iterator<GoalNode>() {
+				private int next = goals.nextSetBit(0);
+				private Iterator<GoalNode> withoutIds = goalsWithoutIds.iterator();
+
+				@Override
+				public boolean hasNext() {
+					return next >= 0 || withoutIds.hasNext();
+				}
+
+				@Override
+				public GoalNode next() {
+					if (next < 0)
+						return withoutIds.next();
+					GoalNode g = GoalTree.getInstance().getGoalById(next);
+					next = goals.nextSetBit(next + 1);
+					return g;
+				}
+			};
+		}
+	}
+
 	private void addDescendant(PositionNode newDescendant) {
 		this.descendants.add(newDescendant);
 	}
 
-	public List<PositionNode> getDescendants() {
+	/**
+	 * The positions created with this one as parent, trees that share positions
+	 * do not register them (see PositionsTree.getSubordinates)
+	 */
+	List<PositionNode> getDescendants() {
 		return this.descendants;
 	}
 
@@ -107,7 +365,12 @@ public class PositionNode implements Requirement {
 		return this.positionName;
 	}
 
-	public PositionNode getParent() {
+	/**
+	 * The parent this position was created with, a position shared by many trees
+	 * may have an older version of its superior as parent, only its index and
+	 * name are valid (see PositionsTree.getSuperior)
+	 */
+	PositionNode getParent() {
 		return this.parent;
 	}
 
@@ -119,8 +382,9 @@ public class PositionNode implements Requirement {
 		this.parentName = parentName;
 	}
 
-	public void setParent(PositionNode parent) {
+	void setParent(PositionNode parent) {
 		this.parent = parent;
+		this.level = (parent == null) ? 1 : parent.getLevel() + 1;
 		if (getParent() != null) {
 			setParentName(parent.getPositionName());
 			getParent().addDescendant(this);
@@ -129,6 +393,38 @@ public class PositionNode implements Requirement {
 		}
 	}
 
+	/**
+	 * The index of this position in its tree, positions shared by many trees
+	 * (see PersistentPositionsTree) have the same index in all of them
+	 * 
+	 * @return an integer from 0 to the size of the tree - 1, or -1 if not in a tree
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	void setIndex(int index) {
+		this.index = index;
+	}
+
+	/**
+	 * The index of the parent in the tree
+	 * 
+	 * @return an integer or -1 if it has no parent
+	 */
+	public int getParentIndex() {
+		return (getParent() == null) ? -1 : getParent().getIndex();
+	}
+
+	/**
+	 * The level of this position in the hierarchy, it is set with the parent
+	 * 
+	 * @return 1 for a supreme, the level of the superior + 1 otherwise
+	 */
+	public int getLevel() {
+		return level;
+	}
+
 	/**
 	 * Check if this position has a parent position
 	 * @param g
@@ -139,52 +435,119 @@ public class PositionNode implements Requirement {
 	}
 
 	/**
-	 * Generate a signature of this position which will be used to make a signature of
-	 * the tree which makes a search state unique
+	 * The goals of this position, the signature with the superiors is given by
+	 * the tree (see PositionsTree.getSignature)
 	 */
 	public String toString() {
-		String r = "";
+		return getGoalsSignature();
+	}
 
-		List<String> signatureByGoals = new ArrayList<>();
-		if ((getAssignedGoals() != null) && (!getAssignedGoals().isEmpty())) {
-			Iterator<GoalNode> iterator = getAssignedGoals().iterator(); 
-			while (iterator.hasNext()) {
-				GoalNode n = iterator.next(); 
+	/**
+	 * The original names of the assigned goals, sorted by their original ids
+	 * (or by name if some goal has no id)
+	 */
+	String getGoalsSignature() {
+		List<String> signatureByGoals = new ArrayList<>(nGoals);
+		if (!goalsWithoutIds.isEmpty()) {
+			for (GoalNode n : getAssignedGoals())
 				signatureByGoals.add(n.getOriginalName());
-			}
 			Collections.sort(signatureByGoals);
+			return "G{" + signatureByGoals + "}";
 		}
-		r += "G{" + signatureByGoals + "}";
 
-		if (getParent() != null) {
-			r += "^";
-			r += getParent().toString();
-		}
-		
-		return r;
+		// original ids in the high bits, so ids are sorted without building the names first
+		long[] ids = new long[nGoals];
+		int n = 0;
+		for (int i = goals.nextSetBit(0); i >= 0; i = goals.nextSetBit(i + 1))
+			ids[n++] = ((long) GoalTree.getInstance().getGoalById(i).getOriginalId() << 32) | i;
+		Arrays.sort(ids);
+		for (long id : ids)
+			signatureByGoals.add(GoalTree.getInstance().getGoalById((int) id).getOriginalName());
+		return "G{" + signatureByGoals + "}";
 	}
 	
+	/**
+	 * A 64-bit key of the goals and annotations of this position under a superior
+	 * of the given content key (see PositionsTree.getContentKey). The set of
+	 * annotations keeps the first workload of each id, so positions with the same
+	 * goals may have different workloads if the goals were assigned in a different
+	 * order. Positions with equal content keys accept and produce the same changes.
+	 * 
+	 * @param parentKey the content key of the superior, 0 for a supreme
+	 */
+	long getContentKey(long parentKey) {
+		long h = goalsKey + annotationsKey * 0xc2b2ae3d27d4eb4fL + (parentKey + 1) * 0x9e3779b97f4a7c15L;
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		return h ^ (h >>> 33);
+	}
+
+	/**
+	 * A 64-bit key of an annotation: its type, its code and the value of a workload
+	 */
+	private static long getAnnotationKey(Annotation a) {
+		long type = (a instanceof Workload) ? 1 : (a instanceof Sector) ? 2 : 3;
+		long h = (a.getCode() + 1) * 4 + type;
+		if (a instanceof Workload)
+			h += Double.doubleToLongBits(((Workload) a).getEffort()) * 0x9e3779b97f4a7c15L;
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		return h ^ (h >>> 33);
+	}
+
 	public PositionNode cloneContent() {
 		// parent is not cloned it must be resolved by the tree
 		PositionNode clone = new PositionNode(null, getPositionName());
 		// parent is resolved by its cloned source parent's name
 		clone.setParentName(getParentName());
+		// same index and level in the cloned tree
+		clone.index = this.index;
+		clone.level = this.level;
 
-		for (Annotation w : getAnnotations()) 
-			clone.addAnnotation(w.clone());
-
-		for (GoalNode goal : getAssignedGoals()) 
-			if (!clone.getAssignedGoals().contains(goal)) 
-				clone.getAssignedGoals().add(goal);
+		clone.addCopiesOf(getAnnotations());
+		copyGoalsTo(clone);
 
 	    return clone;
 	}
 	
+	/**
+	 * Copy this position under the given parent, the copy is not added to the
+	 * descendants of the parent
+	 * 
+	 * @param newParent the parent of the copy
+	 * @return a new position with the same content of this one
+	 */
+	PositionNode copyContent(PositionNode newParent) {
+		PositionNode copy = new PositionNode(newParent, getPositionName(), false);
+		copy.index = this.index;
+
+		copy.addCopiesOf(getAnnotations());
+		copyGoalsTo(copy);
+
+		return copy;
+	}
+
+	private void copyGoalsTo(PositionNode position) {
+		position.goals = (BitSet) this.goals.clone();
+		position.originalGoals = (BitSet) this.originalGoals.clone();
+		position.goalsWithoutIds = new HashSet<>(this.goalsWithoutIds);
+		position.nGoals = this.nGoals;
+		position.goalsKey = this.goalsKey;
+	}
+
+	/**
+	 * Check if this position has the same goals and annotations as another one,
+	 * goals are compared by their ids and annotations by their key
+	 */
+	boolean hasSameContent(PositionNode other) {
+		return annotationsKey == other.annotationsKey && goals.equals(other.goals)
+				&& goalsWithoutIds.equals(other.goalsWithoutIds);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((getAssignedGoals() == null) ? 0 : getAssignedGoals().hashCode());
+		result = prime * result + goals.hashCode();
+		result = prime * result + goalsWithoutIds.hashCode();
 		return result;
 	}
 
@@ -197,15 +560,13 @@ public class PositionNode implements Requirement {
 		if (getClass() != obj.getClass())
 			return false;
 		PositionNode other = (PositionNode) obj;
-		if (this.getAssignedGoals() == null) {
-			if (other.getAssignedGoals() != null)
-				return false;
-		} else if (!getAssignedGoals().equals(other.getAssignedGoals()))
-			return false;
-		return true;
+		return goals.equals(other.goals) && goalsWithoutIds.equals(other.goalsWithoutIds);
 	}
 	
 	public boolean containsGoalByOriginalName(GoalNode g1) {
+		if (goalsWithoutIds.isEmpty() && g1.getOriginalId() >= 0)
+			return originalGoals.get(g1.getOriginalId());
+
 		Iterator<GoalNode> i = assignedGoals.iterator();
 		while (i.hasNext()) {
 			GoalNode g2 = i.next();
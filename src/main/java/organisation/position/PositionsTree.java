@@ -1,13 +1,16 @@
 package organisation.position;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-import annotations.Annotation;
 import annotations.Workload;
 import fit.Requirement;
 import fit.RequirementSet;
@@ -22,8 +25,20 @@ import organisation.goal.GoalTree;
  */
 public class PositionsTree implements RequirementSet {
 
-	private int numberOfLevels = 0;
-	private Set<PositionNode> tree = new HashSet<>();
+	protected int numberOfLevels = 0;
+	// positions by their indexes (see PositionNode.getIndex)
+	protected List<PositionNode> tree = new ArrayList<>();
+	// sum of the content keys of all positions (see getContentKey), updated incrementally
+	protected long contentKey = 0;
+	// aggregate counters used by the cost functions, updated incrementally
+	// number of goals and of different original goals summed over all positions
+	protected int nGoalsAssigned = 0;
+	protected int nOriginalGoalsAssigned = 0;
+	// sum of workloads in units (see PositionNode.getSumWorkloadUnits), an integer sum does not
+	// depend on the order of the positions
+	protected long sumWorkloadUnits = 0;
+	// number of positions that are not near (see isNear)
+	protected int nFarPositions = 0;
 
 	public PositionsTree() {
 	}
@@ -40,36 +55,124 @@ public class PositionsTree implements RequirementSet {
 		return tree.size();
 	}
 
-	public Set<PositionNode> getTree() {
+	/**
+	 * The positions of this tree, the position of index i is the i-th element
+	 * 
+	 * @return a list that must not be changed
+	 */
+	public List<PositionNode> getTree() {
 		return tree;
 	}
 
+	/**
+	 * Add a position to this tree, a position that is not in a tree yet gets
+	 * the next index
+	 * 
+	 * @param position a new position or a position of this tree (nothing changes)
+	 */
 	public void addPositionToTree(PositionNode position) {
+		if (position.getIndex() < 0)
+			position.setIndex(tree.size());
+
+		if (position.getIndex() < tree.size()) {
+			if (tree.get(position.getIndex()) != position)
+				throw new IllegalArgumentException("There is another position with index " + position.getIndex() + "!");
+			// already in the tree
+			return;
+		}
+		if (position.getIndex() > tree.size())
+			throw new IllegalArgumentException("Position " + position.getPositionName() + " has index "
+					+ position.getIndex() + " but the next index is " + tree.size() + "!");
+
 		updateNumberOfLevels(position);
-		
 		tree.add(position);
+		contentKey += getContentKey(position);
+		updateCounters(position, 1);
 	}
 
-	private void updateNumberOfLevels(PositionNode position) {
-		int levels = 1;
-		while (position.getParent() != null) {
-			position = position.getParent();
-			levels++;
-		}
+	/**
+	 * Add (sign 1) or remove (sign -1) the contribution of a position to the
+	 * aggregate counters of this tree. Counters are kept as positions are added
+	 * and goals assigned, so a position must not be changed after being added
+	 * to the tree by other means.
+	 * 
+	 * @param position a position of this tree
+	 * @param sign 1 to add, -1 to remove
+	 */
+	protected void updateCounters(PositionNode position, int sign) {
+		nGoalsAssigned += sign * position.getAssignedGoals().size();
+		nOriginalGoalsAssigned += sign * position.getNumberOfOriginalGoals();
+		sumWorkloadUnits += sign * position.getSumWorkloadUnits();
+		if (!isNear(position))
+			nFarPositions += sign;
+	}
 
-		if (levels > getNumberOfLevels())
-			setNumberOfLevels(levels);
+	/**
+	 * The nearness of the subordinates depends on the sectors of the superior,
+	 * so it is updated when a goal is assigned to the superior
+	 */
+	protected void updateFarSubordinates(List<PositionNode> subordinates, int sign) {
+		for (PositionNode s : subordinates)
+			if (!isNear(s))
+				nFarPositions += sign;
+	}
+
+	protected void updateNumberOfLevels(PositionNode position) {
+		if (position.getLevel() > getNumberOfLevels())
+			setNumberOfLevels(position.getLevel());
 	}
 
 	public PositionNode createPosition(PositionNode parent, String name, GoalNode g) {
-		PositionNode nr = new PositionNode(parent, name);
+		PositionNode nr = newPosition(parent, name);
 
-		assignGoalToPosition(nr, g);
+		// the new position has no key in the tree yet, it is added with the position
+		assignGoal(nr, g);
 		addPositionToTree(nr);
 
 		return nr;
 	}
 
+	/**
+	 * Create a position with the given goals and workloads, e.g. to restore a
+	 * chart. The workloads are added before the goals, so they are kept instead
+	 * of the first workload of each id of the goals (see
+	 * PositionNode.addAnnotation), which depends on the order the goals were
+	 * assigned.
+	 * 
+	 * @param parent the parent, null for a supreme
+	 * @param name the name of the position
+	 * @param goals the goals assigned to the position
+	 * @param workloads the workloads of the position
+	 * @return the new position, added to this tree
+	 */
+	public PositionNode createPosition(PositionNode parent, String name, List<GoalNode> goals, List<Workload> workloads) {
+		PositionNode nr = newPosition(parent, name);
+
+		nr.addCopiesOf(workloads);
+		for (GoalNode g : goals)
+			assignGoal(nr, g);
+		addPositionToTree(nr);
+
+		return nr;
+	}
+
+	protected PositionNode newPosition(PositionNode parent, String name) {
+		return new PositionNode(parent, name);
+	}
+
+	/**
+	 * The position of the given index
+	 * 
+	 * @param index an index from 0 to size() - 1
+	 * @return the position of this tree with this index
+	 * @throws PositionNotFound if there is no such index
+	 */
+	public PositionNode getPosition(int index) throws PositionNotFound {
+		if (index < 0 || index >= tree.size())
+			throw new PositionNotFound("There is no position with index = " + index + "!");
+		return tree.get(index);
+	}
+
 	public PositionNode findPositionByName(String positionName) throws PositionNotFound {
 		for (PositionNode or : this.tree) {
 			if (or.getPositionName().equals(positionName))
@@ -81,58 +184,206 @@ public class PositionsTree implements RequirementSet {
 	public PositionsTree cloneContent() throws PositionNotFound {
 		PositionsTree clonedTree = new PositionsTree();
 
-		// first clone all positions
+		// first clone all positions, with the same indexes
 		for (PositionNode or : this.tree) {
-			PositionNode nnewS = or.cloneContent();
 			// not using addPositionToTree because parent is still unknown
-			clonedTree.getTree().add(nnewS);
+			clonedTree.tree.add(or.cloneContent());
 		}
 
-		// finding right parents in the new tree
-		for (PositionNode or : clonedTree.getTree()) {
+		// finding right parents in the new tree by their indexes
+		for (PositionNode or : this.tree) {
 
 			// it is not the root position
-			if (!or.getParentName().equals("")) {
-				or.setParent(clonedTree.findPositionByName(or.getParentName()));
+			if (or.getParent() != null) {
+				clonedTree.tree.get(or.getIndex()).setParent(clonedTree.tree.get(or.getParentIndex()));
 			}
 		}
 		
-		// update number of levels after knowning parents
-		clonedTree.setNumberOfLevels(1);
-		for (PositionNode or : clonedTree.getTree()) {
-			clonedTree.updateNumberOfLevels(or);
-		}
+		// same structure, same levels, key and counters
+		clonedTree.numberOfLevels = this.numberOfLevels;
+		clonedTree.copyKeyAndCounters(this);
 		
 		return clonedTree;
 	}
 
+	protected void copyKeyAndCounters(PositionsTree source) {
+		this.contentKey = source.contentKey;
+		this.nGoalsAssigned = source.nGoalsAssigned;
+		this.nOriginalGoalsAssigned = source.nOriginalGoalsAssigned;
+		this.sumWorkloadUnits = source.sumWorkloadUnits;
+		this.nFarPositions = source.nFarPositions;
+	}
+
 	public PositionNode assignGoalToPositionByPositionName(String positionName, GoalNode newGoal) throws PositionNotFound {
 		PositionNode position = this.findPositionByName(positionName);
 
-		assignGoalToPosition(position, newGoal);
+		return assignGoalToPosition(position, newGoal);
+	}
 
+	/**
+	 * Assign a goal to a position of this tree
+	 * 
+	 * The content of the position and of all its subordinates changes, so
+	 * only their keys are replaced in the key of the tree (see
+	 * getSubtreeKeyChange). Likewise, only the counters of the position and of
+	 * its direct subordinates are replaced.
+	 * 
+	 * @param position a position of this tree
+	 * @param newGoal the goal to be assigned
+	 * @return the position that received the goal
+	 */
+	public PositionNode assignGoalToPosition(PositionNode position, GoalNode newGoal) {
+		long superiorKey = getSuperiorKey(position);
+		long oldKey = position.getContentKey(superiorKey);
+		List<PositionNode> subordinates = getSubordinates(position);
+		updateCounters(position, -1);
+		updateFarSubordinates(subordinates, -1);
+
+		assignGoal(position, newGoal);
+
+		contentKey += getSubtreeKeyChange(position, oldKey, position.getContentKey(superiorKey));
+		updateCounters(position, 1);
+		updateFarSubordinates(subordinates, 1);
+		
 		return position;
 	}
 
-	public void assignGoalToPosition(PositionNode position, GoalNode newGoal) {
+	protected void assignGoal(PositionNode position, GoalNode newGoal) {
 		position.assignGoal(newGoal);
 
 		// Copy all workloads of the goal to this new position
-		for (Annotation w : newGoal.getAnnotations())
-			position.addAnnotation(w.clone());
+		position.addCopiesOf(newGoal.getAnnotations());
+	}
+
+	/**
+	 * The change of the sum of the keys of a subtree when the content key of its
+	 * root changes, the old and new keys of the subordinates are computed in one
+	 * walk (their content does not change, only the key of their superiors)
+	 * 
+	 * @param position the root of the subtree
+	 * @param oldKey the content key of the root before the change
+	 * @param newKey the content key of the root after the change
+	 * @return the new sum of the keys minus the old one
+	 */
+	protected long getSubtreeKeyChange(PositionNode position, long oldKey, long newKey) {
+		long change = newKey - oldKey;
+		for (PositionNode d : getSubordinates(position))
+			change += getSubtreeKeyChange(d, d.getContentKey(oldKey), d.getContentKey(newKey));
+		return change;
+	}
+
+	/**
+	 * The direct subordinates of a position of this tree
+	 * 
+	 * @param position a position of this tree
+	 * @return list of positions that have the given one as parent
+	 */
+	protected List<PositionNode> getSubordinates(PositionNode position) {
+		return position.getDescendants();
+	}
+
+	/**
+	 * The superior of a position of this tree
+	 * 
+	 * @param position a position of this tree
+	 * @return the parent of the position in this tree, null for a supreme
+	 */
+	public PositionNode getSuperior(PositionNode position) {
+		return position.getParent();
+	}
+
+	/**
+	 * A 64-bit key of the goals and annotations of a position of this tree and of
+	 * its superiors in this tree (see PositionNode.getContentKey)
+	 */
+	protected long getContentKey(PositionNode position) {
+		return position.getContentKey(getSuperiorKey(position));
+	}
+
+	/**
+	 * The content key of the superior of a position of this tree
+	 * 
+	 * @return a long, 0 for a supreme
+	 */
+	protected long getSuperiorKey(PositionNode position) {
+		PositionNode superior = getSuperior(position);
+		return (superior == null) ? 0 : getContentKey(superior);
+	}
+
+	/**
+	 * The signature of a position of this tree: its goals and the ones of its
+	 * superiors in this tree
+	 */
+	protected String getSignature(PositionNode position) {
+		PositionNode superior = getSuperior(position);
+		return position.getGoalsSignature() + ((superior == null) ? "" : "^" + getSignature(superior));
 	}
 
 	/**
-	 * Give the sum of efforts of the whole tree
+	 * The positions of this tree without the ones that are symmetric to a previous
+	 * one. Two positions are symmetric when they have the same signature (same goals
+	 * and same superiors) and the same annotations, so adding a subordinate to any
+	 * of them gives the same tree. For changes that also affect subordinates (e.g.
+	 * assigning a goal), symmetric positions must also have the same subordinates.
 	 * 
-	 * @return a double
+	 * Positions are compared by their 64-bit content keys (see
+	 * getContentKey), the signature alone is not enough: the same
+	 * goals may have left different workloads, so a goal may fit in only one of
+	 * two positions with the same signature.
+	 * 
+	 * @param sameSubordinates true if subordinates must be compared too
+	 * @return set of positions (by identity), the first in the iteration order of the tree
+	 */
+	public Set<PositionNode> getAsymmetricPositions(boolean sameSubordinates) {
+		Map<PositionNode, Long> keys = new IdentityHashMap<>();
+		for (PositionNode p : this.tree) {
+			long key = getContentKey(p);
+			keys.merge(p, key, Long::sum);
+			if (sameSubordinates) {
+				// the key of a subtree is the sum of the keys of its positions
+				for (PositionNode s = getSuperior(p); s != null; s = getSuperior(s))
+					keys.merge(s, key, Long::sum);
+			}
+		}
+
+		Set<PositionNode> positions = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Long> seen = new HashSet<>();
+		for (PositionNode p : this.tree) {
+			if (seen.add(keys.get(p)))
+				positions.add(p);
+		}
+		return positions;
+	}
+
+	/**
+	 * A 64-bit key of the content of this tree: the sum of the content keys of
+	 * its positions (see getContentKey(PositionNode)), so it covers their goals,
+	 * their annotations with the values of workloads and their superiors. Equal
+	 * trees have equal keys, different keys mean different trees.
+	 * 
+	 * @return a long that is updated incrementally when the tree changes
+	 */
+	public long getContentKey() {
+		return contentKey;
+	}
+
+	/**
+	 * Give the sum of efforts of the whole tree, it is computed from the
+	 * workloads of all positions (the cost functions use a counter instead)
+	 * 
+	 * @return a double, exact to the workload scale if it is set
 	 */
 	public double getSumWorkload() {
+		if (Parameters.getWorkloadScale() > 0) {
+			long units = 0;
+			for (PositionNode r : this.tree)
+				units += r.getSumWorkloadUnits();
+			return (double) units / Parameters.getWorkloadScale();
+		}
+
 		double sumWorkload = 0;
 		for (PositionNode r : this.tree) {
-			for (Workload w : r.getWorkloads()) {
-				sumWorkload += (double) w.getValue();
-			}
+			sumWorkload += r.getSumWorkload();
 		}
 		return sumWorkload;
 	}
@@ -144,7 +395,7 @@ public class PositionsTree implements RequirementSet {
 			Iterator<PositionNode> iterator = getTree().iterator();
 			while (iterator.hasNext()) {
 				PositionNode n = iterator.next();
-				signatureByPositions.add(n.toString());
+				signatureByPositions.add(getSignature(n));
 			}
 			Collections.sort(signatureByPositions);
 		}
@@ -173,26 +424,48 @@ public class PositionsTree implements RequirementSet {
 
 	@Override
 	public int hashCode() {
-		return this.toString().hashCode();
+		return (int) (contentKey ^ (contentKey >>> 32));
 	}
 
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
+		// trees that share positions are equal to trees that do not
+		if (!(obj instanceof PositionsTree))
 			return false;
 		PositionsTree other = (PositionsTree) obj;
-		if (tree == null) {
-			if (other.tree != null)
-				return false;
-		} else if (!tree.toString().equals(other.tree.toString()))
+		if (contentKey != other.contentKey || tree.size() != other.tree.size())
 			return false;
+		// keys can collide, the positions are compared only in this case: positions
+		// may have been created in another order, so they are paired by their keys
+		PositionNode[] positions = getPositionsByKey();
+		PositionNode[] otherPositions = other.getPositionsByKey();
+		for (int i = 0; i < positions.length; i++) {
+			PositionNode p = positions[i];
+			PositionNode q = otherPositions[i];
+			if (p.getLevel() != q.getLevel() || !p.hasSameContent(q))
+				return false;
+			PositionNode ps = getSuperior(p);
+			PositionNode qs = other.getSuperior(q);
+			if (ps != null && !ps.hasSameContent(qs))
+				return false;
+		}
 		return true;
 	}
 
+	/**
+	 * The positions of this tree sorted by their content keys (see getContentKey)
+	 */
+	private PositionNode[] getPositionsByKey() {
+		long[] keys = new long[tree.size()];
+		for (int i = 0; i < keys.length; i++)
+			keys[i] = getContentKey(tree.get(i));
+		PositionNode[] positions = tree.toArray(new PositionNode[0]);
+		Arrays.sort(positions, Comparator.comparingLong(p -> keys[p.getIndex()]));
+		return positions;
+	}
+
 	/**
 	 * Generalness is about how similar are the positions. If all positions are
 	 * assigned to the same goals, they request same skills so they are similar.
@@ -232,16 +505,8 @@ public class PositionsTree implements RequirementSet {
 	 * @throws Exception 
 	 */	
 	private double getGeneralnessMinMax() {
-		int nAllOriginalGoalsAssigned = 0;
-
-		for (PositionNode or : this.tree) {
-			Set<String> allOriginalGoalsOfPosition = new HashSet<>();
-			for (GoalNode g : or.getAssignedGoals()) {
-				allOriginalGoalsOfPosition.add(g.getOriginalName());
-			}
-			// Accumulates only different goals, sum all we have on each position 
-			nAllOriginalGoalsAssigned += allOriginalGoalsOfPosition.size();
-		}
+		// Accumulates only different goals, sum all we have on each position 
+		int nAllOriginalGoalsAssigned = nOriginalGoalsAssigned;
 		
 		// the most specialist positions tree must have all workloads distributed
 		// without splitting them (if may be impossible if the sumofefforts if higher
@@ -292,7 +557,7 @@ public class PositionsTree implements RequirementSet {
 	 */
 	public double getEfficiencyFactor() {
 		double capacity = this.tree.size() * Parameters.getMaxWorkload();
-		double occupancy = this.getSumWorkload();
+		double occupancy = (double) this.sumWorkloadUnits / Parameters.getWorkloadUnitsScale();
 
 		return occupancy / capacity;
 	}
@@ -316,24 +581,29 @@ public class PositionsTree implements RequirementSet {
 	 * @return propiquity rate from 0 to 1, from far to near
 	 */
 	public double getPropinquityFactor() {
-		// Check if two position in a hierarchy are of the same sector
-		for (PositionNode p : this.tree) {
-			if (p.hasParent() && p.getSectors().size() == 1) {
-				// The superior is not of the same sector as the subordinate
-				if (!p.getSectors().get(0).getId().equals(p.getParent().getSectors().get(0).getId())) {
-					return 0;
-				}
-			}
-		}
+		return (nFarPositions == 0) ? 1 : 0;
+	}
 
+	/**
+	 * A position is near if it has no more than one sector and its sector is the
+	 * same as the one of its superior (if any)
+	 * 
+	 * @param p a position
+	 * @return false if p breaks the propinquity of the tree
+	 */
+	protected boolean isNear(PositionNode p) {
 		// Check if a joined position has different sectors
-		for (PositionNode p : this.tree) {
-			if (p.getSectors().size() > 1) {
-				return 0;
-			}
+		if (p.getNumberOfSectors() > 1)
+			return false;
+
+		// Check if two position in a hierarchy are of the same sector
+		if (p.hasParent() && p.getNumberOfSectors() == 1) {
+			PositionNode superior = getSuperior(p);
+			// The superior is not of the same sector as the subordinate
+			if (superior.getNumberOfSectors() > 0 && p.getSectorCode(0) != superior.getSectorCode(0))
+				return false;
 		}
-		
-		return 1;
+		return true;
 	}
 	
 	/**
@@ -344,11 +614,7 @@ public class PositionsTree implements RequirementSet {
 	 * @return a new rate eventually compensated
 	 */
 	private double compensateWhenSearchInProgress(double rate) {
-		int nGoalsAssigned = 0;
-		for (PositionNode or : this.tree) {
-			// Accumulates all goals (all broken goals) 
-			nGoalsAssigned += or.getAssignedGoals().size();
-		}
+		// nGoalsAssigned accumulates all goals (all broken goals) 
 		// if it is a partial generalness, add a penalty according to the number of goals to assign
 		int nGoalsToAssing = GoalTree.getInstance().getTree().size() - nGoalsAssigned;
 
@@ -1,12 +1,27 @@
 package organisation.search;
 
+import java.io.DataInput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-
-import annotations.Annotation;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import annotations.Workload;
+import busca.Assinatura;
+import busca.DadosGlobais;
 import busca.Estado;
 import busca.Heuristica;
+import busca.PontoDeControle;
+import busca.Reconstrutivel;
+import busca.SucessoresIncrementais;
 import organisation.OrganisationPlot;
 import organisation.OrganisationStatistics;
 import organisation.Parameters;
@@ -14,6 +29,7 @@ import organisation.exception.OutputDoesNotMatchWithInput;
 import organisation.exception.PositionNotFound;
 import organisation.goal.GoalNode;
 import organisation.goal.GoalTree;
+import organisation.position.PersistentPositionsTree;
 import organisation.position.PositionNode;
 import organisation.position.PositionsTree;
 import organisation.search.cost.Cost;
@@ -25,33 +41,47 @@ import simplelogger.SimpleLogger;
  * @author cleber
  *
  */
-public class Organisation implements Estado, Heuristica {
+public class Organisation implements Estado, Heuristica, Assinatura, SucessoresIncrementais, Reconstrutivel, DadosGlobais {
 
 	/*** STATIC ***/
 	private static SimpleLogger LOG = SimpleLogger.getInstance();
 	// list of target states, i.e., complete charts
 	private static List<Organisation> isGoalList;
+	// the charts of the target states (see PositionsTree.toString), to check duplicated solutions without
+	// going through the list, a chart reached with different workloads is the same solution
+	private static Set<String> isGoalSet;
 	// Cost penalty used to infer bad decisions on search
 	private static CostResolver penalty;
 	// Heuristic used to infer bad decisions on search
 	private static HeuristicResolver heuristic;
 	// Number of generated states
-	private static int nStatesX2 = 0;
+	private static final AtomicInteger nStatesX2 = new AtomicInteger();
 	// a reference to the goals tree (static)
 	private static GoalTree goalsTree;
 	// stop algorithm after finding the first solution
 	private static boolean oneSolution = true;
 	// any name for an organisation
 	private static String orgName;
+	// transformations of the action codes (see acao)
+	private static final int ADD_SUPREME = 0;
+	private static final int ADD_SUBORDINATE = 1;
+	private static final int JOIN_EXISTING = 2;
+	// bits of the goal id and of the position index in an action code
+	private static final int ACTION_BITS = 14;
 	
 	/*** LOCAL ***/
 	// the chart that is being created, potentially a complete chart
-	PositionsTree positionsTree = new PositionsTree();
-	// The goals that were not explored yet
-	private List<GoalNode> goalSuccessors = new ArrayList<GoalNode>();
+	// positions are shared between a state and its successors
+	PositionsTree positionsTree = new PersistentPositionsTree();
+	// The goals that were not explored yet, by their ids (see GoalTree.updateGoalIds)
+	private BitSet goalSuccessors = new BitSet();
+	// xor of the keys of the goals that were not explored yet
+	private long goalSuccessorsKey = 0;
 	// Cost supporting variables
 	private int cost = 0;
 	private int accCost = 0;
+	// the transformation that created this state from its parent, -1 if it cannot be encoded
+	private int action = -1;
 
 	public String getDescricao() {
 		return "Empty\n";
@@ -77,17 +107,29 @@ public class Organisation implements Estado, Heuristica {
 	public Organisation(String orgName, GoalTree gTree, List<Cost> preferences, Boolean oneSolution) {
 		Organisation.orgName = orgName;
 		Organisation.oneSolution = oneSolution;
-		Organisation.nStatesX2 = 0;
+		Organisation.nStatesX2.set(0);
 
 		goalsTree = gTree;
-		this.goalSuccessors.add(goalsTree.getRootNode());
-		goalsTree.addSuccessorsToList(this.goalSuccessors, goalsTree.getRootNode());
+		goalsTree.updateEquivalentGoals();
+		List<GoalNode> goals = new ArrayList<GoalNode>();
+		goals.add(goalsTree.getRootNode());
+		goalsTree.addSuccessorsToList(goals, goalsTree.getRootNode());
+		if (Parameters.isFixedGoalOrder())
+			goalsTree.sortByMostConstrained(goals);
+		// goals are assigned in the order of their ids
+		goalsTree.updateGoalIds(goals);
+		for (GoalNode goal : goals) {
+			this.goalSuccessors.set(goal.getId());
+			this.goalSuccessorsKey ^= goal.getGoalKey();
+		}
 		
 		// Used to infer a bad decision on the search
-		Parameters.setDefaultPenalty((this.goalSuccessors.size() + 1) * 10);
+		Parameters.setDefaultPenalty((goals.size() + 1) * 10);
 		penalty = new CostResolver(preferences);
-		//heuristic = new HeuristicResolver(costFunction);
+		// the latter preference has higher priority, without preferences there is no cost function
+		heuristic = new HeuristicResolver(preferences.isEmpty() ? Cost.UNITARY : preferences.get(preferences.size() - 1));
 		isGoalList = new ArrayList<Organisation>();
+		isGoalSet = new HashSet<String>();
 		
 		Parameters.getInstance();
 		LOG.info("Max Workload  : "+ Parameters.getMaxWorkload());
@@ -101,39 +143,46 @@ public class Organisation implements Estado, Heuristica {
 	}
 	
 	public boolean ehMeta() {
-		Organisation.nStatesX2++;
-		if (this.goalSuccessors.size() <= 0) {
-			
-			if (!isGoalList.contains(this)) {
-				isGoalList.add(this);
-				LOG.info("Visited #" + getNStates() + " Solution #" + isGoalList.size() + ", "
-						+ this.toString() + ", Hash: " + this.hashCode() + ", Cost: " + this.accCost + "/" + this.cost);
-		
-				OrganisationPlot p = new OrganisationPlot();
-				OrganisationStatistics s = OrganisationStatistics.getInstance();
-				if (oneSolution) {
-					isGoalList.clear();
-					
-                    final String dot = p.plotOrganisation(this, "");
-                    
-                    p.saveDotAsPNG(this.getOrgName(), dot);
-
-                    s.saveGenerationStatistics(this);
-                    
-                    return true;
-				} else {
-                    p.plotOrganisation(this, Integer.toString(isGoalList.size()));
-                    
-					s.saveGenerationStatistics(this);
+		Organisation.nStatesX2.incrementAndGet();
+		if (!this.goalSuccessors.isEmpty())
+			return false;
 
-					return false;
-				}
-			} else {
-				LOG.debug("Visited #" + getNStates() + " Duplicated solution!" + ", Hash: "
-						+ this.hashCode());
-			}
+		// the solutions are shared by all search threads (e.g. parallel A*), only complete charts take the lock
+		synchronized (Organisation.class) {
+			return addSolution();
+		}
+	}
+
+	private boolean addSolution() {
+		if (!isGoalSet.add(this.positionsTree.toString())) {
+			LOG.debug("Visited #" + getNStates() + " Duplicated solution!" + ", Hash: "
+					+ this.hashCode());
+			return false;
+		}
+		isGoalList.add(this);
+		LOG.info("Visited #" + getNStates() + " Solution #" + isGoalList.size() + ", "
+				+ this.toString() + ", Hash: " + this.hashCode() + ", Cost: " + this.accCost + "/" + this.cost);
+
+		OrganisationPlot p = new OrganisationPlot();
+		OrganisationStatistics s = OrganisationStatistics.getInstance();
+		if (oneSolution) {
+			isGoalList.clear();
+			isGoalSet.clear();
+
+			final String dot = p.plotOrganisation(this, "");
+
+			p.saveDotAsPNG(this.getOrgName(), dot);
+
+			s.saveGenerationStatistics(this);
+
+			return true;
+		} else {
+			p.plotOrganisation(this, Integer.toString(isGoalList.size()));
+
+			s.saveGenerationStatistics(this);
+
+			return false;
 		}
-		return false;
 	}
 
 	public boolean isValid() throws OutputDoesNotMatchWithInput {
@@ -146,7 +195,9 @@ public class Organisation implements Estado, Heuristica {
 	
 	private void matchSumWorkload() throws OutputDoesNotMatchWithInput {
 		// checking if sum of efforts match
-		if (Math.abs(goalsTree.getSumEfforts() - positionsTree.getSumWorkload()) > 0.01) {
+		// with a workload scale both sums are exact
+		double tolerance = (Parameters.getWorkloadScale() > 0) ? 0 : 0.01;
+		if (Math.abs(goalsTree.getSumEfforts() - positionsTree.getSumWorkload()) > tolerance) {
 			throw new OutputDoesNotMatchWithInput(
 					"The sum of efforts of the goals tree and the created organisation does not match!");
 		}
@@ -156,10 +207,10 @@ public class Organisation implements Estado, Heuristica {
 		// number of workloads must be equal or lower (similar workloads can be joined)
 		int goalsTreeNumberOfWorkloads = 0;
 		for (GoalNode g : goalsTree.getTree())
-			goalsTreeNumberOfWorkloads += g.getWorkloads().size();
+			goalsTreeNumberOfWorkloads += g.getNumberOfWorkloads();
 		int organisationNumberOfWorkloads = 0;
 		for (PositionNode r : positionsTree.getTree())
-			goalsTreeNumberOfWorkloads += r.getWorkloads().size();
+			goalsTreeNumberOfWorkloads += r.getNumberOfWorkloads();
 		if (organisationNumberOfWorkloads > goalsTreeNumberOfWorkloads)
 			throw new OutputDoesNotMatchWithInput("There are more workloads in the output than in the input!");
 	}
@@ -174,33 +225,176 @@ public class Organisation implements Estado, Heuristica {
 	}
 	
 	/** Lista de sucessores */
-	@SuppressWarnings("unchecked")
 	public List<Estado> sucessores() {
+		if (Parameters.isParallelSuccessors())
+			return new SuccessorsIterator().createAll();
+
 		List<Estado> suc = new LinkedList<>(); // Lista de sucessores
+		iteradorSucessores().forEachRemaining(suc::add);
+		return suc;
+	}
+
+	/**
+	 * Successors created on demand, in the same order of sucessores(). With
+	 * parallel successors, they are all created at once.
+	 */
+	public Iterator<Estado> iteradorSucessores() {
+		if (Parameters.isParallelSuccessors())
+			return sucessores().iterator();
+
+		return new SuccessorsIterator();
+	}
 
-		if (positionsTree.getTree().size() == 0) {
-			// add all possible successors as supreme
-			for (GoalNode goalToBeAssociated : goalSuccessors) {
-				addNotNull((List<Object>) (List<?>) suc, addSupremePosition(goalToBeAssociated));
+	/**
+	 * The goals that can be assigned in this state. Interchangeable goals are
+	 * assigned in the order of their equivalence class, so only one of the
+	 * symmetric states is created. In fixed goal order, only the next goal
+	 * (goals to assign are kept in this order) can be assigned.
+	 */
+	private List<GoalNode> getGoalsToAssign() {
+		List<GoalNode> goals = new ArrayList<>();
+		for (int id = goalSuccessors.nextSetBit(0); id >= 0; id = goalSuccessors.nextSetBit(id + 1)) {
+			GoalNode goal = goalsTree.getGoalById(id);
+			if (Parameters.isFixedGoalOrder()) {
+				goals.add(goal);
+				break;
 			}
-		} else {
-			for (GoalNode goalToBeAssociated : goalSuccessors) {
-				// add all children as possible successors
-				for (PositionNode position : positionsTree.getTree()) {
-					addNotNull((List<Object>) (List<?>) suc, addSupremePosition(goalToBeAssociated));
-					addNotNull((List<Object>) (List<?>) suc, addSubordinatePosition(position, goalToBeAssociated));
-					addNotNull((List<Object>) (List<?>) suc, joinExistingPosition(position, goalToBeAssociated));
+			GoalNode predecessor = goalsTree.getEquivalentPredecessor(goal);
+			if (predecessor == null || !goalSuccessors.get(predecessor.getId()))
+				goals.add(goal);
+		}
+		return goals;
+	}
+
+	/**
+	 * The goals that were not assigned yet, in the order of their ids
+	 */
+	public List<GoalNode> getGoalSuccessors() {
+		List<GoalNode> goals = new ArrayList<>(goalSuccessors.cardinality());
+		for (int id = goalSuccessors.nextSetBit(0); id >= 0; id = goalSuccessors.nextSetBit(id + 1))
+			goals.add(goalsTree.getGoalById(id));
+		return goals;
+	}
+
+	/**
+	 * The pool that creates the successors of a state in parallel (see
+	 * Parameters.isParallelSuccessors), shared by all states and created on first use
+	 */
+	private static class SuccessorsPool {
+		static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * For each goal to assign, creates a new supreme and then, for each position,
+	 * a new subordinate and a join. Only the first of symmetric positions is used,
+	 * they give isomorphic successors (see PositionsTree.getAsymmetricPositions).
+	 */
+	private class SuccessorsIterator implements Iterator<Estado> {
+		private final List<GoalNode> goals = getGoalsToAssign();
+		// the tree of this state is not changed, successors have their own trees
+		private final List<PositionNode> positions = positionsTree.getTree();
+		private final Set<PositionNode> superiors;
+		private final Set<PositionNode> hosts;
+		private int goal = 0;
+		// -1 for a new supreme, then two transformations for each position
+		private int transformation = -1;
+		private Organisation next = null;
+
+		SuccessorsIterator() {
+			superiors = positions.isEmpty() ? null : positionsTree.getAsymmetricPositions(false);
+			hosts = positions.isEmpty() ? null : positionsTree.getAsymmetricPositions(true);
+		}
+
+		public boolean hasNext() {
+			while (next == null && goal < goals.size()) {
+				next = createSuccessor(goal, transformation);
+				if (++transformation >= 2 * positions.size()) {
+					transformation = -1;
+					goal++;
 				}
 			}
+			return next != null;
 		}
 
-		return suc;
-	}
+		/**
+		 * The successor of a transformation of a goal, it only reads this state
+		 * so successors can be created by many threads at the same time
+		 * 
+		 * @param goal the index of the goal to assign
+		 * @param transformation -1 for a new supreme, 2 * index of the position for a
+		 *                       new subordinate, 2 * index + 1 for a join
+		 * @return the successor or null if it was pruned
+		 */
+		private Organisation createSuccessor(int goal, int transformation) {
+			GoalNode goalToBeAssociated = goals.get(goal);
+			if (transformation < 0) {
+				// a new supreme does not depend on the existing positions
+				return addSupremePosition(goalToBeAssociated);
+			}
+			PositionNode position = positions.get(transformation / 2);
+			if (transformation % 2 == 0) {
+				if (superiors.contains(position))
+					return addSubordinatePosition(position, goalToBeAssociated);
+			} else if (hosts.contains(position)) {
+				return joinExistingPosition(position, goalToBeAssociated);
+			}
+			return null;
+		}
+
+		/**
+		 * Creates all the successors in parallel, each one in its slot of an array, so
+		 * they are in the same order of the iterator
+		 * 
+		 * @return the list of successors
+		 */
+		List<Estado> createAll() {
+			final int perGoal = 2 * positions.size() + 1;
+			final Organisation[] created = new Organisation[goals.size() * perGoal];
+			int parallelism = SuccessorsPool.POOL.getParallelism();
+			if (parallelism == 1 || created.length < 2) {
+				// nothing to split, the successors are created by this thread
+				for (int i = 0; i < created.length; i++)
+					created[i] = createSuccessor(i / perGoal, i % perGoal - 1);
+				return toList(created);
+			}
+			final int chunk = Math.max(1, created.length / (4 * parallelism));
+
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (int from = 0; from < created.length; from += chunk) {
+				final int start = from;
+				final int end = Math.min(created.length, from + chunk);
+				tasks.add(ForkJoinTask.adapt(() -> {
+					for (int i = start; i < end; i++)
+						created[i] = createSuccessor(i / perGoal, i % perGoal - 1);
+				}));
+			}
+			if (ForkJoinTask.inForkJoinPool()) {
+				// already in a pool (e.g. a parallel search), its threads help
+				ForkJoinTask.invokeAll(tasks);
+			} else {
+				SuccessorsPool.POOL.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+			}
+
+			return toList(created);
+		}
+
+		private List<Estado> toList(Organisation[] created) {
+			List<Estado> suc = new ArrayList<>(created.length);
+			for (Organisation o : created)
+				if (o != null)
+					suc.add(o);
+			return suc;
+		}
 
-	private void addNotNull(List<Object> l, Object e) {
-		if (e != null) l.add(e);		
+		public Estado next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Organisation n = next;
+			next = null;
+			return n;
+		}
 	}
-	
+
 	public Organisation addSupremePosition(GoalNode goalToAssign) {
 		try {
 			// Prune states with effort equal to 0
@@ -210,14 +404,7 @@ public class Organisation implements Estado, Heuristica {
 			}
 
 			// Prune states in which the supreme is not a manage_sector
-			boolean isManager = false;
-			for (Annotation f : (goalToAssign.getAnnotations())) {
-				if (f.getId().equals("manage_sector")) {
-					isManager = true;
-					break;	
-				}
-			}
-			if (!isManager) {
+			if (!goalToAssign.isSectorManager()) {
 				LOG.debug("Visited #" + getNStates() + " addSupreme pruned#2 " + this.toString());
 				return null;
 			}
@@ -228,6 +415,7 @@ public class Organisation implements Estado, Heuristica {
 
 			newState.cost = penalty.getPenalty(goalToAssign, this.getPositionsTree(), newState.getPositionsTree());
 			newState.accCost = this.accCost + newState.cost;
+			newState.action = encodeAction(ADD_SUPREME, goalToAssign, null);
 
 			logTransformation("addSupreme", newState, nr);
 			
@@ -256,35 +444,32 @@ public class Organisation implements Estado, Heuristica {
 			}
 
 			// Prune states with effort greater than max (should never happen if the goals were broken properly)
-			if (goalToAssign.getSumWorkload() > Parameters.getMaxWorkload()) {
+			if (exceedsMaxWorkload(null, goalToAssign)) {
 				LOG.debug("Visited #" + getNStates() + " addSubordinate pruned#2 " + this.toString());
 				return null;
 			}
 			
 			// Prune states with a manage of a sector as a subordinate
-			for (Annotation f : (goalToAssign.getAnnotations())) {
-				if (f.getId().equals("manage_sector")) {
-					LOG.debug("Visited #" + getNStates() + " addSubordinate pruned#3 " + this.toString());
-					return null;
-				}
-			} 
+			if (goalToAssign.isSectorManager()) {
+				LOG.debug("Visited #" + getNStates() + " addSubordinate pruned#3 " + this.toString());
+				return null;
+			}
 
 			// Prune states with a manage of a track as a superior
-			for (Annotation f : (aGivenPosition.getAnnotations())) {
-				if (f.getId().equals("manage_track")) {
-					LOG.debug("Visited #" + getNStates() + " addSubordinate pruned#3 " + this.toString());
-					return null;
-				}
-			} 
+			if (aGivenPosition.isTrackManager()) {
+				LOG.debug("Visited #" + getNStates() + " addSubordinate pruned#3 " + this.toString());
+				return null;
+			}
 
 			Organisation newState = (Organisation) createState(goalToAssign);
 
-			PositionNode nr = newState.positionsTree.createPosition(newState.positionsTree.findPositionByName(aGivenPosition.getPositionName()),
+			PositionNode nr = newState.positionsTree.createPosition(newState.positionsTree.getPosition(aGivenPosition.getIndex()),
 					"p" + newState.positionsTree.size(), goalToAssign);
 			
 
 			newState.cost = penalty.getPenalty(goalToAssign, this.getPositionsTree(), newState.getPositionsTree());
 			newState.accCost = this.accCost + newState.cost;
+			newState.action = encodeAction(ADD_SUBORDINATE, goalToAssign, aGivenPosition);
 
 			logTransformation("addSubordinate", newState, nr);
 			
@@ -312,27 +497,24 @@ public class Organisation implements Estado, Heuristica {
 			}
 			
 			// Prune states with effort greater than max
-			if ((hostPosition.getSumWorkload() + goalToAssign.getSumWorkload()) > Parameters.getMaxWorkload()) {
+			if (exceedsMaxWorkload(hostPosition, goalToAssign)) {
 				LOG.debug("Visited #" + getNStates() + " joinExisting pruned#2 " + this.toString());
 				return null;
 			}
 
 			// Prune states which tries to add manage-Sector twice
-			if (hostPosition.hasParent()) {
-				for (Annotation f : (goalToAssign.getAnnotations())) {
-					if (f.getId().equals("manage_sector")) {
-						LOG.debug("Visited #" + getNStates() + " joinExisting pruned#3 " + this.toString());
-						return null;
-					}
-				} 
+			if (hostPosition.hasParent() && goalToAssign.isSectorManager()) {
+				LOG.debug("Visited #" + getNStates() + " joinExisting pruned#3 " + this.toString());
+				return null;
 			}
 			
 			Organisation newState = (Organisation) createState(goalToAssign);
 
-			PositionNode jr = newState.positionsTree.assignGoalToPositionByPositionName(hostPosition.getPositionName(), goalToAssign);
+			PositionNode jr = newState.positionsTree.assignGoalToPosition(newState.positionsTree.getPosition(hostPosition.getIndex()), goalToAssign);
 
 			newState.cost = penalty.getPenalty(goalToAssign, this.getPositionsTree(), newState.getPositionsTree());
 			newState.accCost = this.accCost + newState.cost;
+			newState.action = encodeAction(JOIN_EXISTING, goalToAssign, hostPosition);
 
 			logTransformation("joinPosition", newState, jr);
 
@@ -343,12 +525,164 @@ public class Organisation implements Estado, Heuristica {
 		return null;
 	}
 
+	/**
+	 * The transformation, the id of the goal and the index of the position
+	 * packed in an int: two bits for the transformation and 14 bits for the
+	 * others
+	 * 
+	 * @return the action code, -1 if an id or index does not fit
+	 */
+	private static int encodeAction(int transformation, GoalNode goal, PositionNode position) {
+		int index = (position == null) ? 0 : position.getIndex();
+		if (goal.getId() >= (1 << ACTION_BITS) || index >= (1 << ACTION_BITS))
+			return -1;
+		return (((goal.getId() << ACTION_BITS) | index) << 2) | transformation;
+	}
+
+	/**
+	 * The action code of the transformation that created this state, so the
+	 * search can keep only the code in its open list (see busca.Nodo.compacta)
+	 */
+	public int acao() {
+		return action;
+	}
+
+	/**
+	 * Replays a transformation of this state
+	 * 
+	 * @param action the code of a successor (see acao)
+	 * @return the successor, equal to the one created by the search
+	 */
+	public Estado aplica(int action) {
+		GoalNode goal = goalsTree.getGoalById(action >>> (2 + ACTION_BITS));
+		int index = (action >>> 2) & ((1 << ACTION_BITS) - 1);
+		try {
+			switch (action & 3) {
+			case ADD_SUPREME:
+				return addSupremePosition(goal);
+			case ADD_SUBORDINATE:
+				return addSubordinatePosition(positionsTree.getPosition(index), goal);
+			case JOIN_EXISTING:
+				return joinExistingPosition(positionsTree.getPosition(index), goal);
+			}
+		} catch (PositionNotFound e) {
+			LOG.fatal("Fatal error on replaying an action! " + e.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Copies the solutions found so far for a checkpoint of the search (see
+	 * busca.PontoDeControle). Solutions are complete charts that are not
+	 * changed anymore, so only the list is copied and the charts are written
+	 * by the checkpoint thread.
+	 * 
+	 * The workloads of each position are written with its goals: a position
+	 * keeps the first workload of each id, so replaying the goals in another
+	 * order could restore other workloads.
+	 */
+	public PontoDeControle.Gravador copiaDadosGlobais() {
+		final List<Organisation> solutions;
+		final int nStates;
+		synchronized (Organisation.class) {
+			solutions = new ArrayList<Organisation>(isGoalList);
+			nStates = nStatesX2.get();
+		}
+		return out -> {
+			out.writeInt(nStates);
+			out.writeInt(solutions.size());
+			for (Organisation o : solutions) {
+				out.writeInt(o.accCost);
+				out.writeInt(o.cost);
+				out.writeInt(o.positionsTree.size());
+				for (PositionNode position : o.positionsTree.getTree()) {
+					out.writeInt(position.getParentIndex());
+					out.writeInt(position.getAssignedGoals().size());
+					for (GoalNode goal : position.getAssignedGoals())
+						out.writeInt(goal.getId());
+					List<Workload> workloads = position.getWorkloads();
+					out.writeInt(workloads.size());
+					for (Workload w : workloads) {
+						out.writeUTF(w.getId());
+						out.writeDouble(w.getEffort());
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Restores the solutions of a checkpoint, the charts are rebuilt
+	 * position by position (parents come first in the tree) with the
+	 * workloads that were written
+	 */
+	public void leDadosGlobais(DataInput in) throws IOException {
+		int nStates = in.readInt();
+		int nSolutions = in.readInt();
+		List<Organisation> solutions = new ArrayList<Organisation>(nSolutions);
+		try {
+			for (int s = 0; s < nSolutions; s++) {
+				Organisation o = new Organisation();
+				o.accCost = in.readInt();
+				o.cost = in.readInt();
+				int nPositions = in.readInt();
+				for (int i = 0; i < nPositions; i++) {
+					int parentIndex = in.readInt();
+					PositionNode parent = (parentIndex < 0) ? null : o.positionsTree.getPosition(parentIndex);
+					int nGoals = in.readInt();
+					List<GoalNode> goals = new ArrayList<GoalNode>(nGoals);
+					for (int g = 0; g < nGoals; g++) {
+						GoalNode goal = goalsTree.getGoalById(in.readInt());
+						if (goal == null)
+							throw new IOException("The checkpoint has a goal that is not in the goals tree!");
+						goals.add(goal);
+					}
+					int nWorkloads = in.readInt();
+					List<Workload> workloads = new ArrayList<Workload>(nWorkloads);
+					for (int w = 0; w < nWorkloads; w++)
+						workloads.add(new Workload(in.readUTF(), in.readDouble()));
+					o.positionsTree.createPosition(parent, "p" + i, goals, workloads);
+				}
+				solutions.add(o);
+			}
+		} catch (PositionNotFound e) {
+			throw new IOException("The checkpoint has a position without parent! " + e.getMessage());
+		}
+		synchronized (Organisation.class) {
+			nStatesX2.set(nStates);
+			isGoalList.clear();
+			isGoalList.addAll(solutions);
+			isGoalSet.clear();
+			for (Organisation o : solutions)
+				isGoalSet.add(o.positionsTree.toString());
+		}
+	}
+
+	/**
+	 * Check if the workloads of a position plus the ones of the goal are greater
+	 * than the max workload. With a workload scale they are compared as integer
+	 * units, so 0.6 + 0.2 + 0.2 fits in 1 even though the sum of doubles is
+	 * slightly greater.
+	 * 
+	 * @param position a position or null for a new one
+	 * @param goal the goal to assign
+	 * @return true if the goal does not fit in the position
+	 */
+	private static boolean exceedsMaxWorkload(PositionNode position, GoalNode goal) {
+		if (Parameters.getWorkloadScale() > 0) {
+			long units = goal.getSumWorkloadUnits() + ((position == null) ? 0 : position.getSumWorkloadUnits());
+			return units > Parameters.getMaxWorkloadUnits();
+		}
+		double workload = goal.getSumWorkload() + ((position == null) ? 0 : position.getSumWorkload());
+		return workload > Parameters.getMaxWorkload();
+	}
+
 	/**
 	 * This is the signature of an organisation. Two organsiations are considered
 	 * equal if they have the same name and exactly same positions tree
 	 */
 	public String toString() {
-		return getOrgName() + positionsTree.toString() + " - " + this.goalSuccessors;
+		return getOrgName() + positionsTree.toString() + " - " + getGoalSuccessors();
 	}
 
 	/**
@@ -358,7 +692,13 @@ public class Organisation implements Estado, Heuristica {
 	public boolean equals(Object o) {
 		try {
 			if (o instanceof Organisation) {
-				if (this.toString().equals(((Organisation) o).toString())) {
+				// the positions are compared only when the keys collide
+				if (this.getContentKey() != ((Organisation) o).getContentKey())
+					return false;
+				// the goals to assign are compared by their ids, the positions with their annotations: states
+				// with the same signature (toString) may have different workloads and so different successors
+				if (this.goalSuccessors.equals(((Organisation) o).goalSuccessors)
+						&& this.positionsTree.equals(((Organisation) o).positionsTree)) {
 					LOG.debug("Visited #" + getNStates() + " Pruned" + this.toString() + ", Hash: "
 							+ o.hashCode());
 					return true;
@@ -375,12 +715,32 @@ public class Organisation implements Estado, Heuristica {
 	 * retorna o hashCode desse estado (usado para poda, conjunto de fechados)
 	 */
 	public int hashCode() {
-		if (positionsTree != null)
-			return toString().hashCode();
-		else
+		if (positionsTree != null) {
+			long key = getContentKey();
+			return (int) (key ^ (key >>> 32));
+		} else
 			return -1;
 	}
 
+	/**
+	 * A 64-bit key of the content of this state: the content key of its
+	 * positions tree (see PositionsTree.getContentKey) and the key of the set of
+	 * goals to assign, both are kept incrementally
+	 * 
+	 * @return a long, equal states have equal keys
+	 */
+	public long getContentKey() {
+		long key = positionsTree.getContentKey() * 0x9e3779b97f4a7c15L;
+		return key ^ goalSuccessorsKey;
+	}
+
+	/**
+	 * The fingerprint used by compact closed lists
+	 */
+	public long assinatura() {
+		return getContentKey();
+	}
+
 	/**
 	 * The cost to generate the individual state
 	 */
@@ -393,7 +753,7 @@ public class Organisation implements Estado, Heuristica {
 	 */
 	public int h() {
 		try {
-			return heuristic.getPedictedCost(this.goalSuccessors, this.positionsTree);
+			return heuristic.getPedictedCost(this.goalSuccessors.cardinality(), this.positionsTree);
 		} catch (PositionNotFound e) {
 			e.printStackTrace();
 		}
@@ -415,11 +775,9 @@ public class Organisation implements Estado, Heuristica {
 			newState.positionsTree = positionsTree.cloneContent();
 
 			// Add all successors of current state but not the new state itself
-			// list of goals does not need to be cloned because does not change
-			for (GoalNode goal : goalSuccessors) {
-				if (goal != gn)
-					newState.goalSuccessors.add(goal);
-			}
+			newState.goalSuccessors = (BitSet) goalSuccessors.clone();
+			newState.goalSuccessors.clear(gn.getId());
+			newState.goalSuccessorsKey = goalSuccessorsKey ^ gn.getGoalKey();
 		} catch (PositionNotFound e) {
 			e.printStackTrace();
 		}
@@ -433,10 +791,10 @@ public class Organisation implements Estado, Heuristica {
 
 	private void logTransformation(String transformation, Organisation state, PositionNode position) {
 		String parent = "__";
-		if (position.getParent() != null)
-			parent = position.getParent().getPositionName();
+		if (position.hasParent())
+			parent = position.getParentName();
 		LOG.trace("Visited #" + getNStates() + " " + transformation + ": " + position.getPositionName() + "^"
-				+ parent + " " + state.positionsTree + ", nSucc: " + state.goalSuccessors + ", Hash: " + state.hashCode()
+				+ parent + " " + state.positionsTree + ", nSucc: " + state.getGoalSuccessors() + ", Hash: " + state.hashCode()
 				+ ", Cost: " + state.accCost + "/" + state.cost);
 	}
 	
@@ -447,7 +805,7 @@ public class Organisation implements Estado, Heuristica {
 	public int getNStates() {
 		// visited states is incremented in EhMeta which is visited twice for each state
 		// TODO: check if EhMeta is visited twice for any search algorithm
-		return Organisation.nStatesX2 / 2 + 1;
+		return Organisation.nStatesX2.get() / 2 + 1;
 	}
 
 	/**
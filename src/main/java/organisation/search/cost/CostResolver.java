@@ -13,7 +13,10 @@ import organisation.position.PositionsTree;
  */
 public class CostResolver {
 
+	private static final Cost[] COSTS = Cost.values();
 	private static List<Cost> preferences = null;
+	// weight of each cost function by its ordinal, 0 if it is not a preference
+	private static int[] weights = new int[COSTS.length];
 
 	public CostResolver(List<Cost> preferences) {
 		CostResolver.setPreferences(preferences);
@@ -25,48 +28,54 @@ public class CostResolver {
 
 	public static void setPreferences(List<Cost> preferences) {
 		CostResolver.preferences = preferences;
+
+		// the weight of a preference is its position in the list (the latter has higher priority)
+		int[] w = new int[COSTS.length];
+		if (preferences != null)
+			for (Cost c : COSTS)
+				w[c.ordinal()] = preferences.indexOf(c) + 1;
+		// unitary cost has no penalty besides the minimal one
+		w[Cost.UNITARY.ordinal()] = 0;
+		CostResolver.weights = w;
 	}
 
+	/**
+	 * The penalty of creating the new tree. The rates of the cost functions are
+	 * taken from the counters kept incrementally by the tree, so the penalty does
+	 * not depend on the size of the tree.
+	 */
 	public int getPenalty(GoalNode goal, PositionsTree oldTree, PositionsTree newTree) throws PositionNotFound {
 		int cost = Parameters.getMinimalPenalty();
 
-		// LESS_IDLENESS - punish if it is creating more position than the ideal
-		if (preferences.contains(Cost.EFFICIENT)) {
-			cost += (int) ((1 - newTree.getEfficiency()) * Parameters.getDefaultPenalty()
-					* (preferences.indexOf(Cost.EFFICIENT) + 1));
+		for (Cost c : COSTS) {
+			if (weights[c.ordinal()] > 0)
+				cost += (int) ((1 - getRate(c, newTree)) * Parameters.getDefaultPenalty() * weights[c.ordinal()]);
 		}
+		
+		return cost;
+	}
 
+	private static double getRate(Cost c, PositionsTree tree) {
+		switch (c) {
+		// LESS_IDLENESS - punish if it is creating more position than the ideal
+		case EFFICIENT:
+			return tree.getEfficiency();
 		// MORE_IDLENESS - punish if it is NOT creating as more position a possible
-		if (preferences.contains(Cost.IDLE)) {
-			cost += (int) ((1 - newTree.getIdleness()) * Parameters.getDefaultPenalty()
-					* (preferences.indexOf(Cost.IDLE) + 1));
-		}
-
+		case IDLE:
+			return tree.getIdleness();
 		// GENERALIST - penalize according to generalness of the new tree
-		if (preferences.contains(Cost.GENERALIST)) {
-			cost += (int) ((1 - newTree.getGeneralness()) * Parameters.getDefaultPenalty()
-					* (preferences.indexOf(Cost.GENERALIST) + 1));
-		}
-
+		case GENERALIST:
+			return tree.getGeneralness();
 		// SPECIALIST - penalize according to specificness of the new tree
-		if (preferences.contains(Cost.SPECIALIST)) {
-			cost += (int) ((1 - newTree.getSpecificness()) * Parameters.getDefaultPenalty()
-					* (preferences.indexOf(Cost.SPECIALIST) + 1));
-		}
-
-		// NEAR
-		if (preferences.contains(Cost.NEAR)) {
-			cost += (int) ((1 - newTree.getNearness()) * Parameters.getDefaultPenalty()
-					* (preferences.indexOf(Cost.NEAR) + 1));
+		case SPECIALIST:
+			return tree.getSpecificness();
+		case NEAR:
+			return tree.getNearness();
+		case FAR:
+			return tree.getFarness();
+		default:
+			return 1;
 		}
-
-		// FAR
-		if (preferences.contains(Cost.FAR)) {
-			cost += (int) ((1 - newTree.getFarness()) * Parameters.getDefaultPenalty()
-					* (preferences.indexOf(Cost.FAR) + 1));
-		}
-		
-		return cost;
 	}
 
 }
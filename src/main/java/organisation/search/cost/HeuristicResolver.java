@@ -1,10 +1,7 @@
 package organisation.search.cost;
 
-import java.util.List;
-
 import organisation.Parameters;
 import organisation.exception.PositionNotFound;
-import organisation.goal.GoalNode;
 import organisation.goal.GoalTree;
 import organisation.position.PositionsTree;
 
@@ -29,17 +26,18 @@ public class HeuristicResolver {
 		HeuristicResolver.costFunction = costFunction;
 	}
 
-	public int getPedictedCost(List<GoalNode> gSuc, PositionsTree rTree) throws PositionNotFound {
-		int predictedCost = Parameters.getMinimalPenalty();
+	public int getPedictedCost(int nGoalsToAssign, PositionsTree rTree) throws PositionNotFound {
+		// each goal still to be assigned costs at least the minimal penalty
+		int predictedCost = nGoalsToAssign * Parameters.getMinimalPenalty();
 
 		// High punishment when another position could receive the workload making the tree more generalist
 		if (costFunction == Cost.GENERALIST) {
 			
 			// publish if it is creating more positions than the ideal
 			if (rTree.getTree().size() >= GoalTree.getInstance().getBestNumberOfPositions()) {
-				return gSuc.size() * Parameters.getDefaultPenalty() * 2;
+				return nGoalsToAssign * Parameters.getDefaultPenalty() * 2;
 			} else {
-				return gSuc.size() * Parameters.getMinimalPenalty();
+				return nGoalsToAssign * Parameters.getMinimalPenalty();
 			}
 		}
 
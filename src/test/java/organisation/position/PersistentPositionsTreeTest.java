@@ -0,0 +1,106 @@
+package organisation.position;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import organisation.exception.PositionNotFound;
+import organisation.goal.GoalNode;
+
+public class PersistentPositionsTreeTest {
+
+	@Test
+	public void testSharedPositions() {
+		System.out.println("\n\ntestSharedPositions");
+		GoalNode g0 = new GoalNode(null, "g0");
+		GoalNode g1 = new GoalNode(g0, "g1");
+		GoalNode g2 = new GoalNode(g0, "g2");
+		GoalNode g3 = new GoalNode(g1, "g3");
+
+		// r0 as supreme with r1 and r2 as subordinates
+		PositionsTree t1 = new PersistentPositionsTree();
+		PositionNode r0 = t1.createPosition(null, "r0", g0);
+		PositionNode r1 = t1.createPosition(r0, "r1", g1);
+		PositionNode r2 = t1.createPosition(r0, "r2", g2);
+		String t1Before = t1.toString();
+		long t1KeyBefore = t1.getContentKey();
+
+		try {
+			// joining a goal to r1 copies only r1, r0 and r2 are shared
+			PositionsTree t2 = t1.cloneContent();
+			PositionNode r1Copy = t2.assignGoalToPosition(r1, g3);
+			System.out.println("t1: " + t1);
+			System.out.println("t2: " + t2);
+			assertEquals(t1Before, t1.toString());
+			assertEquals(t1KeyBefore, t1.getContentKey());
+			assertFalse(r1.getAssignedGoals().contains(g3));
+			assertTrue(r1Copy.getAssignedGoals().contains(g3));
+			assertSame(r0, t2.getSuperior(r1Copy));
+			assertTrue(t2.getTree().contains(r0));
+			assertTrue(t2.getTree().contains(r2));
+			assertEquals(3, t2.getTree().size());
+
+			// the same tree built by a deep copy must have the same signature and key
+			PositionsTree t3 = new PositionsTree();
+			PositionNode s0 = t3.createPosition(null, "r0", g0);
+			PositionNode s1 = t3.createPosition(s0, "r1", g1);
+			t3.assignGoalToPosition(s1, g3);
+			t3.createPosition(s0, "r2", g2);
+			assertEquals(t3.getContentKey(), t2.getContentKey());
+			assertEquals(t3.toString(), t2.toString());
+		} catch (PositionNotFound e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	public void testJoinSharesSubordinates() {
+		System.out.println("\n\ntestJoinSharesSubordinates");
+		GoalNode g0 = new GoalNode(null, "g0");
+		GoalNode g1 = new GoalNode(g0, "g1");
+		GoalNode g2 = new GoalNode(g0, "g2");
+
+		PositionsTree t1 = new PersistentPositionsTree();
+		t1.createPosition(null, "r0", g0);
+		try {
+			PositionNode r1 = t1.createPosition(t1.findPositionByName("r0"), "r1", g1);
+
+			// joining a goal to the supreme copies only the supreme, r1 finds the copy by its index
+			PositionsTree t2 = t1.cloneContent();
+			PositionNode r0Copy = t2.assignGoalToPositionByPositionName("r0", g2);
+			System.out.println("t1: " + t1);
+			System.out.println("t2: " + t2);
+			assertSame(r1, t2.findPositionByName("r1"));
+			assertSame(r0Copy, t2.getSuperior(r1));
+			assertSame(t1.findPositionByName("r0"), t1.getSuperior(r1));
+			assertFalse(t1.findPositionByName("r0").getAssignedGoals().contains(g2));
+			assertEquals(2, t2.getTree().size());
+			assertEquals(2, t2.getNumberOfLevels());
+			assertNotEquals(t1.getContentKey(), t2.getContentKey());
+
+			// the same tree built by a deep copy must have the same signature and key
+			PositionsTree t3 = new PositionsTree();
+			PositionNode s0 = t3.createPosition(null, "r0", g0);
+			t3.createPosition(s0, "r1", g1);
+			t3.assignGoalToPosition(s0, g2);
+			assertEquals(t3.getContentKey(), t2.getContentKey());
+			assertEquals(t3.toString(), t2.toString());
+			assertEquals(t3, t2);
+
+			// a subordinate added after the join is under the copy
+			PositionsTree t4 = t2.cloneContent();
+			PositionNode r2 = t4.createPosition(r1, "r2", g2);
+			t3.createPosition(t3.findPositionByName("r1"), "r2", g2);
+			assertSame(r1, t4.getSuperior(r2));
+			assertEquals(t3.getContentKey(), t4.getContentKey());
+			assertEquals(t3.toString(), t4.toString());
+			assertEquals(2, t2.getTree().size());
+		} catch (PositionNotFound e) {
+			e.printStackTrace();
+		}
+	}
+}
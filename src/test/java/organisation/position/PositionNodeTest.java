@@ -1,12 +1,22 @@
 package organisation.position;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
 
 import org.junit.Test;
 
+import annotations.Annotation;
+import annotations.AnnotationRegistry;
+import annotations.Sector;
 import annotations.Workload;
+import organisation.Parameters;
 import organisation.goal.GoalNode;
+import organisation.goal.GoalTree;
 import organisation.position.PositionNode;
 
 public class PositionNodeTest {
@@ -99,4 +109,114 @@ public class PositionNodeTest {
 		System.out.println("r1     : " + r1);
 		System.out.println("r1clone: " + r1clone);
 	}
+
+	@Test
+	public void testOriginalGoals() {
+		System.out.println("\n\ntestOriginalGoals");
+		GoalNode g0 = new GoalNode(null, "g0");
+		GoalNode g1a = new GoalNode(g0, "g1$0");
+		GoalNode g1b = new GoalNode(g0, "g1$1");
+		GoalNode g2 = new GoalNode(g0, "g2");
+
+		// goals without ids are compared by their original names
+		PositionNode r0 = new PositionNode(null, "r0");
+		r0.assignGoal(g1a);
+		r0.assignGoal(g1b);
+		assertEquals(1, r0.getNumberOfOriginalGoals());
+		assertTrue(r0.containsGoalByOriginalName(g1b));
+		assertFalse(r0.containsGoalByOriginalName(g2));
+
+		// goals with ids given by the goals tree are compared by bits
+		GoalTree.getInstance().updateGoalIds(Arrays.asList(g0, g1a, g1b, g2));
+		assertEquals(g1a.getOriginalId(), g1b.getOriginalId());
+		PositionNode r1 = new PositionNode(null, "r1");
+		r1.assignGoal(g1a);
+		r1.assignGoal(g1b);
+		r1.assignGoal(g2);
+		System.out.println("r1: " + r1);
+		assertEquals(2, r1.getNumberOfOriginalGoals());
+		assertTrue(r1.containsGoalByOriginalName(g1b));
+		assertFalse(r1.containsGoalByOriginalName(g0));
+
+		// the assigned goals are a view of the bit set of goal ids
+		assertEquals(3, r1.getAssignedGoals().size());
+		assertTrue(r1.getAssignedGoals().contains(g1b));
+		assertFalse(r1.getAssignedGoals().contains(g0));
+		assertEquals("G{[g1, g1, g2]}", r1.toString());
+		PositionNode r2 = new PositionNode(null, "r2");
+		r2.assignGoal(g2);
+		r2.assignGoal(g1b);
+		r2.assignGoal(g1a);
+		assertEquals(r1, r2);
+		assertEquals(r1.hashCode(), r2.hashCode());
+	}
+
+	@Test
+	public void testAnnotationFlags() {
+		System.out.println("\n\ntestAnnotationFlags");
+		// sectors are shared and not copied
+		Sector se = AnnotationRegistry.sector("se");
+		assertSame(se, AnnotationRegistry.sector("se"));
+		assertSame(se, se.clone());
+		assertEquals(AnnotationRegistry.MANAGE_SECTOR, new Workload("manage_sector", 0.5).getCode());
+
+		GoalNode g0 = new GoalNode(null, "g0");
+		g0.addAnnotation(new Workload("manage_sector", 0.5));
+		g0.addAnnotation(se);
+		GoalNode g1 = new GoalNode(g0, "g1");
+		g1.addAnnotation(new Workload("manage_track", 0.2));
+		assertTrue(g0.isSectorManager());
+		assertFalse(g0.isTrackManager());
+		assertTrue(g1.isTrackManager());
+
+		PositionNode r0 = new PositionNode(null, "r0");
+		r0.assignGoal(g0);
+		for (Annotation a : g0.getAnnotations())
+			r0.addAnnotation(a.clone());
+		System.out.println("r0: " + r0.getAnnotations());
+		assertTrue(r0.isSectorManager());
+		assertFalse(r0.isTrackManager());
+		assertEquals(1, r0.getSectors().size());
+	}
+
+	@Test
+	public void testWorkloadArrays() {
+		System.out.println("\n\ntestWorkloadArrays");
+		PositionNode r0 = new PositionNode(null, "r0");
+		r0.addWorkload(new Workload("s1", 0.5));
+		r0.addWorkload(new Workload("s2", 0.25));
+		r0.addWorkload(new Workload("s1", 0.5));
+		r0.addAnnotation(AnnotationRegistry.sector("nw"));
+		System.out.println("r0: " + r0.getAnnotations());
+		assertEquals(2, r0.getNumberOfWorkloads());
+		assertEquals(1.25, r0.getSumWorkload(), 0);
+		assertEquals(1, r0.getNumberOfSectors());
+		assertEquals(AnnotationRegistry.getCode("nw"), r0.getSectorCode(0));
+
+		// the copy has the same workloads and sectors
+		PositionNode r1 = r0.cloneContent();
+		assertEquals(r0.getSumWorkload(), r1.getSumWorkload(), 0);
+		assertEquals(r0.getWorkload("s1").getEffort(), r1.getWorkload("s1").getEffort(), 0);
+		assertEquals(1, r1.getNumberOfSectors());
+	}
+
+	@Test
+	public void testWorkloadUnits() {
+		System.out.println("\n\ntestWorkloadUnits");
+		PositionNode r0 = new PositionNode(null, "r0");
+		r0.addWorkload(new Workload("s1", 0.1));
+		r0.addWorkload(new Workload("s2", 0.1));
+		r0.addWorkload(new Workload("s3", 0.1));
+
+		int scale = Parameters.getWorkloadScale();
+		try {
+			Parameters.setWorkloadScale(1000);
+			// the sum of doubles is slightly greater than 0.3, the sum of units is exact
+			System.out.println("r0: " + r0.getSumWorkload() + " = " + r0.getSumWorkloadUnits() + "/1000");
+			assertEquals(300, r0.getSumWorkloadUnits());
+			assertEquals(Parameters.toWorkloadUnits(0.3), r0.getSumWorkloadUnits());
+		} finally {
+			Parameters.setWorkloadScale(scale);
+		}
+	}
 }
@@ -1,6 +1,10 @@
 package organisation.position;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -113,4 +117,133 @@ public class PositionsTreeTest {
 		System.out.println("positionsTree : " + positionsTree);
 		assertEquals(5, positionsTree.getNumberOfLevels());
 	}
+
+	@Test
+	public void testContentKey() {
+		System.out.println("\n\ntestContentKey");
+		GoalNode g0 = new GoalNode(null, "g0");
+		GoalNode g1 = new GoalNode(g0, "g1");
+		GoalNode g2 = new GoalNode(g0, "g2");
+
+		// g0 as supreme, g1 and g2 as subordinates
+		PositionsTree t1 = new PositionsTree();
+		PositionNode r0 = t1.createPosition(null, "r0", g0);
+		t1.createPosition(r0, "r1", g1);
+		t1.createPosition(r0, "r2", g2);
+
+		// same structure created in a different order
+		PositionsTree t2 = new PositionsTree();
+		PositionNode s0 = t2.createPosition(null, "r0", g0);
+		t2.createPosition(s0, "r1", g2);
+		t2.createPosition(s0, "r2", g1);
+		System.out.println("t1: " + t1 + " key: " + t1.getContentKey());
+		System.out.println("t2: " + t2 + " key: " + t2.getContentKey());
+		assertEquals(t1.getContentKey(), t2.getContentKey());
+		assertEquals(t1, t2);
+
+		// joining a goal to the supreme also changes the signature of its subordinates
+		try {
+			PositionsTree t3 = t1.cloneContent();
+			assertEquals(t1.getContentKey(), t3.getContentKey());
+			GoalNode g3 = new GoalNode(g0, "g3");
+			t3.assignGoalToPositionByPositionName("r0", g3);
+
+			PositionsTree t4 = new PositionsTree();
+			PositionNode u0 = t4.createPosition(null, "r0", g0);
+			t4.assignGoalToPosition(u0, g3);
+			t4.createPosition(u0, "r1", g1);
+			t4.createPosition(u0, "r2", g2);
+			System.out.println("t3: " + t3 + " key: " + t3.getContentKey());
+			System.out.println("t4: " + t4 + " key: " + t4.getContentKey());
+			assertNotEquals(t1.getContentKey(), t3.getContentKey());
+			assertEquals(t3.getContentKey(), t4.getContentKey());
+			assertEquals(t3, t4);
+		} catch (PositionNotFound e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	public void testAsymmetricPositions() {
+		System.out.println("\n\ntestAsymmetricPositions");
+		GoalNode g0 = new GoalNode(null, "g0");
+		// parts of the same broken goal have the same signature
+		GoalNode g1a = new GoalNode(g0, "g1$0");
+		GoalNode g1b = new GoalNode(g0, "g1$1");
+		GoalNode g2 = new GoalNode(g0, "g2");
+
+		// r1 and r2 are symmetric, r3 is not
+		PositionsTree t1 = new PositionsTree();
+		PositionNode r0 = t1.createPosition(null, "r0", g0);
+		PositionNode r1 = t1.createPosition(r0, "r1", g1a);
+		PositionNode r2 = t1.createPosition(r0, "r2", g1b);
+		t1.createPosition(r0, "r3", g2);
+		System.out.println("t1: " + t1);
+		assertEquals(3, t1.getAsymmetricPositions(false).size());
+		assertEquals(3, t1.getAsymmetricPositions(true).size());
+
+		// with a subordinate r1 is no longer symmetric to r2 when joining goals
+		GoalNode g3 = new GoalNode(g1a, "g3");
+		t1.createPosition(r1, "r4", g3);
+		System.out.println("t1: " + t1);
+		assertEquals(4, t1.getAsymmetricPositions(false).size());
+		assertEquals(5, t1.getAsymmetricPositions(true).size());
+		assertEquals(t1.getAsymmetricPositions(false).contains(r1), !t1.getAsymmetricPositions(false).contains(r2));
+	}
+
+	@Test
+	public void testPositionIndexes() {
+		System.out.println("\n\ntestPositionIndexes");
+		GoalNode g0 = new GoalNode(null, "g0");
+		GoalNode g1 = new GoalNode(g0, "g1");
+		GoalNode g2 = new GoalNode(g1, "g2");
+
+		PositionsTree t1 = new PositionsTree();
+		PositionNode r0 = t1.createPosition(null, "r0", g0);
+		PositionNode r1 = t1.createPosition(r0, "r1", g1);
+		PositionNode r2 = t1.createPosition(r1, "r2", g2);
+		assertEquals(2, r2.getIndex());
+		assertEquals(1, r2.getParentIndex());
+		assertEquals(3, r2.getLevel());
+		assertEquals(3, t1.getNumberOfLevels());
+
+		try {
+			assertSame(r1, t1.getPosition(1));
+
+			// the clone has the same indexes, parents and levels
+			PositionsTree t2 = t1.cloneContent();
+			System.out.println("t2: " + t2);
+			PositionNode c2 = t2.getPosition(2);
+			assertNotSame(r2, c2);
+			assertSame(t2.getPosition(1), t2.getSuperior(c2));
+			assertEquals(3, c2.getLevel());
+			assertEquals(3, t2.getNumberOfLevels());
+			assertEquals(t1.toString(), t2.toString());
+		} catch (PositionNotFound e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	public void testAsymmetricPositionsWithDifferentLoads() {
+		System.out.println("\n\ntestAsymmetricPositionsWithDifferentLoads");
+		GoalNode g0 = new GoalNode(null, "g0");
+		// parts of the same broken goal with different loads
+		GoalNode g1a = new GoalNode(g0, "g1$0");
+		g1a.addAnnotation(new Workload("w1", 0.5));
+		GoalNode g1b = new GoalNode(g0, "g1$1");
+		g1b.addAnnotation(new Workload("w1", 0.3));
+
+		// r1 and r2 have the same signature, but not the same workloads
+		PositionsTree t1 = new PositionsTree();
+		PositionNode r0 = t1.createPosition(null, "r0", g0);
+		PositionNode r1 = t1.createPosition(r0, "r1", g1a);
+		PositionNode r2 = t1.createPosition(r0, "r2", g1b);
+		System.out.println("t1: " + t1);
+		assertEquals(t1.getSignature(r1), t1.getSignature(r2));
+		assertNotEquals(t1.getContentKey(r1), t1.getContentKey(r2));
+		assertEquals(3, t1.getAsymmetricPositions(false).size());
+		assertEquals(3, t1.getAsymmetricPositions(true).size());
+		assertTrue(t1.getAsymmetricPositions(true).contains(r2));
+	}
 }
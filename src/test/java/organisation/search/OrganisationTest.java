@@ -272,10 +272,10 @@ public class OrganisationTest {
 				if (org.getPositionsTree().size() == 1) orgsWith1Position++;
 				if (org.getPositionsTree().size() == 2) {
 					List<PositionNode> positions = new ArrayList<>(org.getPositionsTree().getTree());
-					if ((positions.get(0).getParent() == null) && (positions.get(1).getParent() == null)) 
+					if ((!positions.get(0).hasParent()) && (!positions.get(1).hasParent())) 
 						orgsWith2Supremes++;
-					if (((positions.get(0).getParent() == null) && (positions.get(1).getParent() != null)) || 
-						((positions.get(0).getParent() != null) && (positions.get(1).getParent() == null)))
+					if (((!positions.get(0).hasParent()) && (positions.get(1).hasParent())) || 
+						((positions.get(0).hasParent()) && (!positions.get(1).hasParent())))
 						orgsWith2Levels++;
 				}
 			}
@@ -340,13 +340,13 @@ public class OrganisationTest {
 				if (org.getPositionsTree().size() == 3) {
 					orgsWith3Positions++;
 					List<PositionNode> positions = new ArrayList<>(org.getPositionsTree().getTree());
-					if ((positions.get(0).getParent() == null) && (positions.get(1).getParent() == null) && (positions.get(2).getParent() == null)) 
+					if ((!positions.get(0).hasParent()) && (!positions.get(1).hasParent()) && (!positions.get(2).hasParent())) 
 						orgsWith3Supremes++;
 				}
 				if (org.getPositionsTree().size() == 2) {
 					orgsWith2Positions++;
 					List<PositionNode> positions = new ArrayList<>(org.getPositionsTree().getTree());
-					if ((positions.get(0).getParent() == null) && (positions.get(1).getParent() == null)) 
+					if ((!positions.get(0).hasParent()) && (!positions.get(1).hasParent())) 
 						orgsWith2Supremes++;
 				}
 			}
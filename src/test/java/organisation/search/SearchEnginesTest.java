@@ -0,0 +1,870 @@
+package organisation.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import annotations.Sector;
+import annotations.Workload;
+import busca.AEstrela;
+import busca.AEstrelaAnytime;
+import busca.AEstrelaIterativo;
+import busca.AEstrelaMemoriaLimitada;
+import busca.AEstrelaParalela;
+import busca.Assinatura;
+import busca.BuscaExaustivaParalela;
+import busca.BuscaFeixe;
+import busca.BuscaLargura;
+import busca.BuscaLarguraCamadas;
+import busca.BuscaLarguraExterna;
+import busca.BuscaProfundidade;
+import busca.Estado;
+import busca.FronteiraBaldes;
+import busca.FronteiraForaDoHeap;
+import busca.FronteiraOrdenada;
+import busca.Heuristica;
+import busca.Nodo;
+import busca.PontoDeControle;
+import busca.Reconstrutivel;
+import organisation.OrganisationStatistics;
+import organisation.Parameters;
+import organisation.goal.GoalNode;
+import organisation.goal.GoalTree;
+import organisation.search.cost.Cost;
+
+public class SearchEnginesTest {
+
+	@BeforeClass
+	public static void beforeTests() {
+		OrganisationStatistics s = OrganisationStatistics.getInstance();
+		s.deleteExistingStatistics();
+	}
+
+	@Before
+	public void resetGoalTreeSingleton() throws SecurityException, NoSuchFieldException, IllegalArgumentException, IllegalAccessException {
+		Field instance = GoalTree.class.getDeclaredField("instance");
+		instance.setAccessible(true);
+		instance.set(null, null);
+	}
+
+	/**
+	 * A small DSN goals tree: two sectors and two tracks of the second sector
+	 */
+	private GoalTree createSectorsTree() {
+		Parameters.getInstance();
+		Parameters.setMaxWorkload(1.0);
+		Parameters.setWorkloadGrain(1.0);
+
+		GoalNode nw = new GoalNode(null, "manage_sector_NW");
+		nw.addAnnotation(new Workload("manage_sector", 0.6));
+		nw.addAnnotation(new Sector("nw"));
+		GoalTree gTree = GoalTree.getInstance();
+		gTree.setRootNode(nw);
+		gTree.addGoal("manage_sector_SE", "manage_sector_NW");
+		gTree.findAGoalByName(nw, "manage_sector_SE").addAnnotation(new Workload("manage_sector", 0.6));
+		gTree.findAGoalByName(nw, "manage_sector_SE").addAnnotation(new Sector("se"));
+		gTree.addGoal("track_1", "manage_sector_SE");
+		gTree.findAGoalByName(nw, "track_1").addAnnotation(new Workload("manage_track", 0.2));
+		gTree.findAGoalByName(nw, "track_1").addAnnotation(new Sector("se"));
+		gTree.addGoal("track_2", "manage_sector_SE");
+		gTree.findAGoalByName(nw, "track_2").addAnnotation(new Workload("manage_track", 0.2));
+		gTree.findAGoalByName(nw, "track_2").addAnnotation(new Sector("se"));
+
+		return gTree;
+	}
+
+	/**
+	 * A goals tree like examples/dsn.xml: tracks have workloads with the same id
+	 * of the sector managers, a position keeps only the first workload of an id,
+	 * so the workloads of a position depend on the order its goals were assigned
+	 */
+	private GoalTree createSameWorkloadIdsTree() {
+		Parameters.getInstance();
+		Parameters.setMaxWorkload(1.0);
+		Parameters.setWorkloadGrain(1.0);
+
+		GoalNode nw = new GoalNode(null, "manage_sector_NW");
+		nw.addAnnotation(new Workload("manage_sector", 0.6));
+		nw.addAnnotation(new Sector("nw"));
+		GoalTree gTree = GoalTree.getInstance();
+		gTree.setRootNode(nw);
+		gTree.addGoal("manage_sector_SE", "manage_sector_NW");
+		gTree.findAGoalByName(nw, "manage_sector_SE").addAnnotation(new Workload("manage_track", 0.6));
+		gTree.findAGoalByName(nw, "manage_sector_SE").addAnnotation(new Sector("se"));
+		gTree.addGoal("track_1", "manage_sector_NW");
+		gTree.findAGoalByName(nw, "track_1").addAnnotation(new Workload("manage_sector", 0.2));
+		gTree.findAGoalByName(nw, "track_1").addAnnotation(new Sector("se"));
+		gTree.addGoal("track_3", "manage_sector_NW");
+		gTree.findAGoalByName(nw, "track_3").addAnnotation(new Workload("manage_sector", 0.2));
+		gTree.findAGoalByName(nw, "track_3").addAnnotation(new Sector("nw"));
+
+		return gTree;
+	}
+
+	private Organisation createInitialState(String name, GoalTree gTree) {
+		OrganisationStatistics s = OrganisationStatistics.getInstance();
+		s.prepareGenerationStatisticsFile(name);
+
+		return new Organisation(name, gTree, Arrays.asList(Cost.NEAR, Cost.IDLE), true);
+	}
+
+	/**
+	 * Returns the cost of the optimal solution found by sequential A*
+	 */
+	private int getOptimalCost(String name) throws Exception {
+		Nodo n = new AEstrela().busca(createInitialState(name, createSectorsTree()));
+		assertNotNull(n);
+		resetGoalTreeSingleton();
+		return n.g();
+	}
+
+	@Test
+	public void testParallelAStar() throws Exception {
+		System.out.println("\n\ntestParallelAStar");
+		int optimal = getOptimalCost("ParallelAStarReference");
+
+		Nodo n = new AEstrelaParalela(4).busca(createInitialState("ParallelAStar", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal + ", HDA*: " + n.g() + " " + n);
+		assertEquals(optimal, n.g());
+	}
+
+	@Test
+	public void testParallelAStarNoPreferences() throws Exception {
+		System.out.println("\n\ntestParallelAStarNoPreferences");
+		OrganisationStatistics s = OrganisationStatistics.getInstance();
+		s.prepareGenerationStatisticsFile("ParallelAStarNoPreferences");
+
+		// without preferences only the minimal penalty is used, and idle workers wait for nodes
+		Organisation inicial = new Organisation("ParallelAStarNoPreferences", createSectorsTree(), new ArrayList<Cost>(), true);
+		AEstrelaParalela busca = new AEstrelaParalela(4);
+		Nodo n = busca.busca(inicial);
+		assertNotNull(n);
+		System.out.println("HDA* without preferences: " + n.g() + " " + n);
+		assertTrue(busca.getStatus().getProfundidade() >= n.getProfundidade());
+	}
+
+	@Test
+	public void testParallelExhaustiveSearch() throws Exception {
+		System.out.println("\n\ntestParallelExhaustiveSearch");
+		OrganisationStatistics s = OrganisationStatistics.getInstance();
+		s.prepareGenerationStatisticsFile("ParallelExhaustiveSearchReference");
+		Organisation reference = new Organisation("ParallelExhaustiveSearchReference", createSectorsTree(), Arrays.asList(Cost.NEAR, Cost.IDLE), false);
+		assertEquals(null, new BuscaLargura().busca(reference));
+		Set<String> expected = new HashSet<String>();
+		for (Organisation o : reference.getGoalList())
+			expected.add(o.getPositionsTree().toString());
+		resetGoalTreeSingleton();
+
+		// more threads than subtrees at the beginning, so subtrees are stolen
+		s.prepareGenerationStatisticsFile("ParallelExhaustiveSearch");
+		Organisation inicial = new Organisation("ParallelExhaustiveSearch", createSectorsTree(), Arrays.asList(Cost.NEAR, Cost.IDLE), false);
+		BuscaExaustivaParalela busca = new BuscaExaustivaParalela(4);
+		assertEquals(null, busca.busca(inicial));
+		Set<String> found = new HashSet<String>();
+		for (Organisation o : inicial.getGoalList())
+			found.add(o.getPositionsTree().toString());
+		System.out.println("BFS: " + expected.size() + " solutions, parallel exhaustive search: " + found.size());
+		assertFalse(expected.isEmpty());
+		assertEquals(expected.size(), inicial.getGoalList().size());
+		assertEquals(expected, found);
+	}
+
+	@Test
+	public void testParallelExhaustiveSearchSameCount() throws Exception {
+		System.out.println("\n\ntestParallelExhaustiveSearchSameCount");
+		OrganisationStatistics s = OrganisationStatistics.getInstance();
+		s.prepareGenerationStatisticsFile("ParallelExhaustiveSearchSameCountReference");
+		Organisation reference = new Organisation("ParallelExhaustiveSearchSameCountReference", createSameWorkloadIdsTree(), Arrays.asList(Cost.NEAR, Cost.IDLE), false);
+		assertEquals(null, new BuscaLargura().busca(reference));
+		Set<String> expected = new HashSet<String>();
+		for (Organisation o : reference.getGoalList())
+			expected.add(o.getPositionsTree().toString());
+		resetGoalTreeSingleton();
+
+		// the visiting order changes between runs, equal states must have the same successors
+		for (int run = 0; run < 3; run++) {
+			s.prepareGenerationStatisticsFile("ParallelExhaustiveSearchSameCount");
+			Organisation inicial = new Organisation("ParallelExhaustiveSearchSameCount", createSameWorkloadIdsTree(), Arrays.asList(Cost.NEAR, Cost.IDLE), false);
+			assertEquals(null, new BuscaExaustivaParalela(4).busca(inicial));
+			Set<String> found = new HashSet<String>();
+			for (Organisation o : inicial.getGoalList())
+				found.add(o.getPositionsTree().toString());
+			System.out.println("BFS: " + expected.size() + " solutions, parallel exhaustive search: " + found.size());
+			assertEquals(expected.size(), inicial.getGoalList().size());
+			assertEquals(expected, found);
+			resetGoalTreeSingleton();
+		}
+
+		// depth-first visits the states in yet another order
+		s.prepareGenerationStatisticsFile("ParallelExhaustiveSearchSameCountDFS");
+		Organisation inicial = new Organisation("ParallelExhaustiveSearchSameCountDFS", createSameWorkloadIdsTree(), Arrays.asList(Cost.NEAR, Cost.IDLE), false);
+		assertEquals(null, new BuscaProfundidade().busca(inicial));
+		System.out.println("BFS: " + expected.size() + " solutions, DFS: " + inicial.getGoalList().size());
+		assertEquals(expected.size(), inicial.getGoalList().size());
+	}
+
+	@Test
+	public void testParallelSuccessors() throws Exception {
+		System.out.println("\n\ntestParallelSuccessors");
+		AEstrela reference = new AEstrela();
+		Nodo optimal = reference.busca(createInitialState("ParallelSuccessorsReference", createSectorsTree()));
+		assertNotNull(optimal);
+		resetGoalTreeSingleton();
+
+		Organisation inicial = createInitialState("ParallelSuccessors", createSectorsTree());
+		List<String> expected = new ArrayList<String>();
+		for (Estado e : inicial.sucessores())
+			for (Estado s : e.sucessores())
+				expected.add(s.toString() + " " + s.custo());
+
+		Parameters.setParallelSuccessors(true);
+		try {
+			// the successors are created in parallel but kept in the same order
+			List<String> found = new ArrayList<String>();
+			for (Estado e : inicial.sucessores())
+				for (Estado s : e.sucessores())
+					found.add(s.toString() + " " + s.custo());
+			assertFalse(expected.isEmpty());
+			assertEquals(expected, found);
+
+			AEstrela busca = new AEstrela();
+			Nodo n = busca.busca(inicial);
+			assertNotNull(n);
+			System.out.println("A*: " + optimal.g() + ", A* with parallel successors: " + n.g() + " " + n);
+			assertEquals(optimal.g(), n.g());
+			assertEquals(reference.getStatus().getVisitados(), busca.getStatus().getVisitados());
+		} finally {
+			Parameters.setParallelSuccessors(false);
+		}
+	}
+
+	@Test
+	public void testCompactClosedSet() throws Exception {
+		System.out.println("\n\ntestCompactClosedSet");
+		AEstrela reference = new AEstrela();
+		Nodo optimal = reference.busca(createInitialState("CompactClosedSetReference", createSectorsTree()));
+		assertNotNull(optimal);
+		resetGoalTreeSingleton();
+
+		AEstrela busca = new AEstrela();
+		busca.usarFechadosCompactos(true);
+		Nodo n = busca.busca(createInitialState("CompactClosedSet", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal.g() + ", A* with compact closed set: " + n.g() + " " + n);
+		assertEquals(optimal.g(), n.g());
+		assertEquals(reference.getStatus().getVisitados(), busca.getStatus().getVisitados());
+	}
+
+	@Test
+	public void testBucketFrontier() throws Exception {
+		System.out.println("\n\ntestBucketFrontier");
+		int optimal = getOptimalCost("BucketFrontierReference");
+
+		// the default frontier of A* is a bucket queue, it must find a solution as good as a heap
+		AEstrela busca = new AEstrela();
+		busca.setFronteira(() -> new FronteiraOrdenada(Comparator.comparingInt(Nodo::f)));
+		Nodo n = busca.busca(createInitialState("BucketFrontier", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A* (buckets): " + optimal + ", A* (heap): " + n.g() + " " + n);
+		assertEquals(optimal, n.g());
+	}
+
+	@Test
+	public void testBucketFrontierTies() throws Exception {
+		System.out.println("\n\ntestBucketFrontierTies");
+		// f = 1000 for all but the last one, ties by the smallest h, then by the last inserted
+		int[][] gh = { { 0, 1000 }, { 997, 3 }, { 1000, 0 }, { 10, 990 }, { 999, 1 }, { 1000, 0 }, { 5, 0 } };
+		FronteiraBaldes abertos = new FronteiraBaldes(true);
+		List<Nodo> nodos = new ArrayList<Nodo>();
+		for (int[] v : gh) {
+			Vertice e = new Vertice("v" + nodos.size(), v[0]);
+			e.h = v[1];
+			Nodo n = new Nodo(e, null);
+			nodos.add(n);
+			abertos.insere(n);
+		}
+		int[] order = { 6, 5, 2, 4, 1, 3, 0 };
+		for (int i : order)
+			assertSame(nodos.get(i), abertos.retira());
+		assertEquals(0, abertos.tamanho());
+	}
+
+	@Test
+	public void testCompactNodes() throws Exception {
+		System.out.println("\n\ntestCompactNodes");
+		AEstrela reference = new AEstrela();
+		reference.usarFechadosCompactos(true);
+		Nodo optimal = reference.busca(createInitialState("CompactNodesReference", createSectorsTree()));
+		assertNotNull(optimal);
+		resetGoalTreeSingleton();
+
+		// the open list keeps only the actions, states are rebuilt when explored
+		AEstrela busca = new AEstrela();
+		busca.usarFechadosCompactos(true);
+		busca.usarNodosCompactos(true);
+		Nodo n = busca.busca(createInitialState("CompactNodes", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal.g() + ", A* with compact nodes: " + n.g() + " " + n);
+		assertEquals(optimal.g(), n.g());
+		assertEquals(optimal.toString(), n.toString());
+		assertEquals(reference.getStatus().getVisitados(), busca.getStatus().getVisitados());
+		// the states of the path are rebuilt on demand
+		assertEquals(optimal.getPai().toString(), n.getPai().toString());
+	}
+
+	@Test
+	public void testCompactNodesRebuiltFromParents() throws Exception {
+		System.out.println("\n\ntestCompactNodesRebuiltFromParents");
+		// three levels of three children, with different costs so that siblings are not explored in sequence
+		Vertice raiz = new Vertice("root", 0);
+		for (int i = 0; i < 3; i++) {
+			Vertice v = raiz.add(new Vertice("v" + i, 10 * i));
+			for (int j = 0; j < 3; j++) {
+				Vertice w = v.add(new Vertice("v" + i + j, 3 * j));
+				for (int k = 0; k < 3; k++)
+					w.add(new Vertice("v" + i + j + k, k));
+			}
+		}
+
+		BuscaLargura busca = new BuscaLargura();
+		busca.usarFechadosCompactos(true);
+		busca.usarNodosCompactos(true);
+		Vertice.aplicadas = 0;
+		assertEquals(null, busca.busca(raiz));
+		assertEquals(40, busca.getStatus().getVisitados());
+		// each state is rebuilt once from its parent, and not from the root
+		System.out.println("rebuilt: " + Vertice.aplicadas);
+		assertEquals(39, Vertice.aplicadas);
+	}
+
+	@Test
+	public void testLayeredBreadthFirst() throws Exception {
+		System.out.println("\n\ntestLayeredBreadthFirst");
+		int optimal = getOptimalCost("LayeredBreadthFirstReference");
+
+		// every solution assigns all goals, so the cheapest one of the last layer is optimal
+		BuscaLarguraCamadas busca = new BuscaLarguraCamadas();
+		Nodo n = busca.busca(createInitialState("LayeredBreadthFirst", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal + ", layered BFS: " + n.g() + " " + n + ", widest layer: " + busca.getMaxCamada());
+		assertEquals(optimal, n.g());
+		assertEquals(4, n.getProfundidade());
+	}
+
+	@Test
+	public void testLayeredBreadthFirstSameSolutions() throws Exception {
+		System.out.println("\n\ntestLayeredBreadthFirstSameSolutions");
+		OrganisationStatistics s = OrganisationStatistics.getInstance();
+		s.prepareGenerationStatisticsFile("LayeredBreadthFirstSameSolutionsReference");
+		Organisation reference = new Organisation("LayeredBreadthFirstSameSolutionsReference", createSameWorkloadIdsTree(), Arrays.asList(Cost.NEAR, Cost.IDLE), false);
+		BuscaLargura largura = new BuscaLargura();
+		assertEquals(null, largura.busca(reference));
+		Set<String> expected = new HashSet<String>();
+		for (Organisation o : reference.getGoalList())
+			expected.add(o.getPositionsTree().toString());
+		resetGoalTreeSingleton();
+
+		// the same states are visited, with the states or only their signatures as closed list
+		for (boolean compact : new boolean[] { false, true }) {
+			s.prepareGenerationStatisticsFile("LayeredBreadthFirstSameSolutions");
+			Organisation inicial = new Organisation("LayeredBreadthFirstSameSolutions", createSameWorkloadIdsTree(), Arrays.asList(Cost.NEAR, Cost.IDLE), false);
+			BuscaLarguraCamadas busca = new BuscaLarguraCamadas();
+			busca.usarFechadosCompactos(compact);
+			assertEquals(null, busca.busca(inicial));
+			Set<String> found = new HashSet<String>();
+			for (Organisation o : inicial.getGoalList())
+				found.add(o.getPositionsTree().toString());
+			System.out.println("BFS: " + expected.size() + " solutions (" + largura.getStatus().getVisitados() + " visited), layered BFS"
+					+ (compact ? " with compact closed list: " : ": ") + found.size() + " (" + busca.getStatus().getVisitados() + " visited)");
+			assertEquals(expected, found);
+			assertEquals(largura.getStatus().getVisitados(), busca.getStatus().getVisitados());
+			resetGoalTreeSingleton();
+		}
+	}
+
+	/**
+	 * A vertex of a small graph, to place a cheaper path to a state after a
+	 * costlier one
+	 */
+	private static class Vertice implements Estado, Assinatura, Heuristica, Reconstrutivel {
+		final String nome;
+		final int custo;
+		final List<Estado> sucessores = new ArrayList<Estado>();
+		int expansoes = 0;
+		int h = 0;
+		int acao = -1; // index in the successors of the parent
+		static int aplicadas = 0;
+
+		Vertice(String nome, int custo) {
+			this.nome = nome;
+			this.custo = custo;
+		}
+
+		public String getDescricao() {
+			return "Graph";
+		}
+
+		public boolean ehMeta() {
+			return false;
+		}
+
+		public int custo() {
+			return custo;
+		}
+
+		public int custoAcumulado() {
+			return custo;
+		}
+
+		public int h() {
+			return h;
+		}
+
+		public int acao() {
+			return acao;
+		}
+
+		public Estado aplica(int a) {
+			aplicadas++;
+			return sucessores.get(a);
+		}
+
+		Vertice add(Vertice v) {
+			v.acao = sucessores.size();
+			sucessores.add(v);
+			return v;
+		}
+
+		public List<Estado> sucessores() {
+			expansoes++;
+			return sucessores;
+		}
+
+		public long assinatura() {
+			return nome.hashCode();
+		}
+
+		public boolean equals(Object o) {
+			return o instanceof Vertice && ((Vertice) o).nome.equals(nome);
+		}
+
+		public int hashCode() {
+			return nome.hashCode();
+		}
+
+		public String toString() {
+			return nome;
+		}
+	}
+
+	@Test
+	public void testLayeredBreadthFirstReplacesCostlierNodes() throws Exception {
+		System.out.println("\n\ntestLayeredBreadthFirstReplacesCostlierNodes");
+		// a is explored before b, but x is cheaper through b
+		Vertice raiz = new Vertice("root", 0);
+		Vertice a = new Vertice("a", 1);
+		Vertice b = new Vertice("b", 2);
+		raiz.sucessores.add(a);
+		raiz.sucessores.add(b);
+		Vertice xPorA = new Vertice("x", 10);
+		Vertice xPorB = new Vertice("x", 1);
+		a.sucessores.add(xPorA);
+		b.sucessores.add(xPorB);
+
+		for (boolean compact : new boolean[] { false, true }) {
+			xPorA.expansoes = xPorB.expansoes = 0;
+			BuscaLarguraCamadas busca = new BuscaLarguraCamadas();
+			busca.usarFechadosCompactos(compact);
+			assertEquals(null, busca.busca(raiz));
+			// x is explored once, through b
+			assertEquals(4, busca.getStatus().getVisitados());
+			assertEquals(0, xPorA.expansoes);
+			assertEquals(1, xPorB.expansoes);
+		}
+	}
+
+	@Test
+	public void testParallelExhaustiveSearchClosedListFlags() throws Exception {
+		System.out.println("\n\ntestParallelExhaustiveSearchClosedListFlags");
+		// x is reached through a and through b with the same cost
+		Vertice raiz = new Vertice("root", 0);
+		Vertice a = raiz.add(new Vertice("a", 1));
+		Vertice b = raiz.add(new Vertice("b", 1));
+		Vertice x = a.add(new Vertice("x", 1));
+		b.sucessores.add(x);
+		x.add(new Vertice("y", 1));
+
+		for (boolean compact : new boolean[] { false, true }) {
+			BuscaExaustivaParalela busca = new BuscaExaustivaParalela(2);
+			busca.usarFechadosCompactos(compact);
+			assertEquals(null, busca.busca(raiz));
+			// x and y are visited once
+			assertEquals(5, busca.getStatus().getVisitados());
+			assertEquals(3, busca.getStatus().getProfundidade());
+		}
+
+		// without closed list only the ancestors are compared, x and y are visited through a and through b
+		BuscaExaustivaParalela busca = new BuscaExaustivaParalela(2);
+		busca.usarFechados(false);
+		assertEquals(null, busca.busca(raiz));
+		assertEquals(7, busca.getStatus().getVisitados());
+		assertEquals(3, busca.getStatus().getProfundidade());
+	}
+
+	@Test
+	public void testExternalMemoryBreadthFirst() throws Exception {
+		System.out.println("\n\ntestExternalMemoryBreadthFirst");
+		int optimal = getOptimalCost("ExternalMemoryBreadthFirstReference");
+
+		// a few records in memory, so each layer is written as many sorted runs to be merged
+		Path dir = Files.createTempDirectory("ExternalMemoryBreadthFirst");
+		BuscaLarguraExterna busca = new BuscaLarguraExterna();
+		busca.setDiretorio(dir);
+		busca.setMaxRegistros(4);
+		Nodo n = busca.busca(createInitialState("ExternalMemoryBreadthFirst", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal + ", external BFS: " + n.g() + " " + n + ", widest layer: " + busca.getMaxCamada());
+		assertTrue(n.g() >= optimal);
+		assertEquals(4, n.getProfundidade());
+		// the layer files are deleted
+		assertEquals(0, dir.toFile().list().length);
+		Files.delete(dir);
+	}
+
+	@Test
+	public void testOffHeapFrontier() throws Exception {
+		System.out.println("\n\ntestOffHeapFrontier");
+		AEstrela reference = new AEstrela();
+		reference.usarFechadosCompactos(true);
+		Nodo optimal = reference.busca(createInitialState("OffHeapFrontierReference", createSectorsTree()));
+		assertNotNull(optimal);
+		resetGoalTreeSingleton();
+
+		// open nodes are kept as actions in direct buffers and rebuilt when removed
+		AEstrela busca = new AEstrela();
+		busca.usarFechadosCompactos(true);
+		busca.setFronteira(() -> new FronteiraForaDoHeap(true));
+		Nodo n = busca.busca(createInitialState("OffHeapFrontier", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal.g() + ", A* with off-heap frontier: " + n.g() + " " + n);
+		assertEquals(optimal.g(), n.g());
+		assertEquals(optimal.toString(), n.toString());
+		assertEquals(reference.getStatus().getVisitados(), busca.getStatus().getVisitados());
+	}
+
+	@Test
+	public void testCheckpoint() throws Exception {
+		System.out.println("\n\ntestCheckpoint");
+		AEstrela reference = new AEstrela();
+		reference.usarFechadosCompactos(true);
+		Nodo optimal = reference.busca(createInitialState("CheckpointReference", createSectorsTree()));
+		assertNotNull(optimal);
+		resetGoalTreeSingleton();
+
+		// a checkpoint in every iteration, the search is stopped before finding a solution
+		Path dir = Files.createTempDirectory("Checkpoint");
+		Path file = dir.resolve("search.ckpt");
+		AEstrela busca = new AEstrela();
+		busca.usarNodosCompactos(true);
+		busca.setPontoDeControle(new PontoDeControle(file, 0));
+		busca.setMaxVisitados(20);
+		assertEquals(null, busca.busca(createInitialState("CheckpointStopped", createSectorsTree())));
+		assertTrue(Files.exists(file));
+		resetGoalTreeSingleton();
+
+		// another search resumes from the file and finishes as the reference
+		busca = new AEstrela();
+		busca.usarNodosCompactos(true);
+		busca.setPontoDeControle(new PontoDeControle(file, 0));
+		Nodo n = busca.busca(createInitialState("CheckpointResumed", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal.g() + ", A* resumed from a checkpoint: " + n.g() + " " + n);
+		assertEquals(optimal.g(), n.g());
+		assertEquals(optimal.toString(), n.toString());
+		assertEquals(reference.getStatus().getVisitados(), busca.getStatus().getVisitados());
+		// the checkpoint of a complete search is deleted
+		assertFalse(Files.exists(file));
+		Files.delete(dir);
+	}
+
+	@Test
+	public void testCheckpointSolutionsKeepWorkloads() throws Exception {
+		System.out.println("\n\ntestCheckpointSolutionsKeepWorkloads");
+		// goals with the same workload ids and different values, so the workloads depend on the order of the goals
+		OrganisationStatistics.getInstance().prepareGenerationStatisticsFile("CheckpointSolutionsKeepWorkloads");
+		Organisation inicial = new Organisation("CheckpointSolutionsKeepWorkloads", createSameWorkloadIdsTree(), Arrays.asList(Cost.NEAR, Cost.IDLE), false);
+		assertEquals(null, new BuscaLargura().busca(inicial));
+		List<Long> expected = new ArrayList<Long>();
+		for (Organisation o : inicial.getGoalList())
+			expected.add(o.getPositionsTree().getContentKey());
+		assertFalse(expected.isEmpty());
+
+		// the solutions restored from a checkpoint have the same workloads
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		inicial.copiaDadosGlobais().grava(new DataOutputStream(bytes));
+		inicial.leDadosGlobais(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		List<Long> found = new ArrayList<Long>();
+		for (Organisation o : inicial.getGoalList())
+			found.add(o.getPositionsTree().getContentKey());
+		assertEquals(expected, found);
+	}
+
+	@Test
+	public void testBeamSearch() throws Exception {
+		System.out.println("\n\ntestBeamSearch");
+		int optimal = getOptimalCost("BeamSearchReference");
+
+		// a narrow beam finds a solution, but it may not be the optimal one
+		Nodo n = new BuscaFeixe(1).busca(createInitialState("BeamSearchNarrow", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal + ", beam 1: " + n.g() + " " + n);
+		assertTrue(n.g() >= optimal);
+		resetGoalTreeSingleton();
+
+		// a beam wider than any depth of the search tree behaves like a complete search
+		n = new BuscaFeixe(1000).busca(createInitialState("BeamSearchWide", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal + ", beam 1000: " + n.g() + " " + n);
+		assertEquals(optimal, n.g());
+	}
+
+	@Test
+	public void testBeamSearchClosedListByLayer() throws Exception {
+		System.out.println("\n\ntestBeamSearchClosedListByLayer");
+		// x is generated twice in the same layer, through a and through b
+		Vertice raiz = new Vertice("root", 0);
+		Vertice a = raiz.add(new Vertice("a", 1));
+		Vertice b = raiz.add(new Vertice("b", 1));
+		Vertice x = a.add(new Vertice("x", 1));
+		b.sucessores.add(x);
+		x.add(new Vertice("y", 1));
+
+		for (boolean compact : new boolean[] { false, true }) {
+			x.expansoes = 0;
+			BuscaFeixe busca = new BuscaFeixe(2);
+			busca.usarFechadosCompactos(compact);
+			assertEquals(null, busca.busca(raiz));
+			// the repeated x is pruned, so the beam does not keep it twice
+			assertEquals(5, busca.getStatus().getVisitados());
+			assertEquals(1, x.expansoes);
+		}
+	}
+
+	@Test
+	public void testBeamSearchClosedList() throws Exception {
+		System.out.println("\n\ntestBeamSearchClosedList");
+		// x is generated twice in the same layer, through a and through b
+		Vertice raiz = new Vertice("root", 0);
+		Vertice a = raiz.add(new Vertice("a", 1));
+		Vertice b = raiz.add(new Vertice("b", 1));
+		Vertice x = a.add(new Vertice("x", 1));
+		b.sucessores.add(x);
+		// c is discarded from the beam, so it can be generated again through x
+		Vertice c = raiz.add(new Vertice("c", 5));
+		x.sucessores.add(c);
+
+		for (boolean compact : new boolean[] { false, true }) {
+			x.expansoes = c.expansoes = 0;
+			BuscaFeixe busca = new BuscaFeixe(2, false);
+			busca.usarFechadosCompactos(compact);
+			assertEquals(null, busca.busca(raiz));
+			// the repeated x is pruned, c is explored only in the third layer
+			assertEquals(5, busca.getStatus().getVisitados());
+			assertEquals(1, x.expansoes);
+			assertEquals(1, c.expansoes);
+		}
+	}
+
+	@Test
+	public void testIterativeDeepeningAStar() throws Exception {
+		System.out.println("\n\ntestIterativeDeepeningAStar");
+		int optimal = getOptimalCost("IterativeDeepeningAStarReference");
+
+		AEstrelaIterativo busca = new AEstrelaIterativo();
+		Nodo n = busca.busca(createInitialState("IterativeDeepeningAStar", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal + ", IDA*: " + n.g() + " " + n);
+		assertEquals(optimal, n.g());
+		int semTabela = busca.getStatus().getVisitados();
+		resetGoalTreeSingleton();
+
+		// a table of visited states prunes states repeated in an iteration, a small one is emptied many times
+		for (int max : new int[] { 4, 100000 }) {
+			busca = new AEstrelaIterativo();
+			busca.setMaxTransposicoes(max);
+			n = busca.busca(createInitialState("IterativeDeepeningAStarTable" + max, createSectorsTree()));
+			assertNotNull(n);
+			System.out.println("IDA* with " + max + " transpositions: " + n.g() + ", visited " + busca.getStatus().getVisitados() + " of " + semTabela);
+			assertEquals(optimal, n.g());
+			assertTrue(busca.getStatus().getVisitados() <= semTabela);
+			resetGoalTreeSingleton();
+		}
+	}
+
+	@Test
+	public void testMemoryBoundedAStar() throws Exception {
+		System.out.println("\n\ntestMemoryBoundedAStar");
+		int optimal = getOptimalCost("MemoryBoundedAStarReference");
+
+		// few nodes in memory: some leaves have to be forgotten and generated again
+		AEstrelaMemoriaLimitada busca = new AEstrelaMemoriaLimitada(20);
+		Nodo n = busca.busca(createInitialState("MemoryBoundedAStar", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal + ", SMA*: " + n.g() + " " + n + ", " + busca.getTamanhoTabelas() + " signatures");
+		assertEquals(optimal, n.g());
+		// the signatures of the forgotten nodes are not kept
+		assertTrue(busca.getTamanhoTabelas() <= 3 * busca.getMaxNodos());
+	}
+
+	@Test
+	public void testAnytimeAStar() throws Exception {
+		System.out.println("\n\ntestAnytimeAStar");
+		int optimal = getOptimalCost("AnytimeAStarReference");
+
+		// the default weights are the ones of the parameters, h is multiplied by them
+		assertEquals(Parameters.getAnytimeInitialWeight(), AEstrelaAnytime.PESO_INICIAL_PADRAO, 0);
+		assertEquals(Parameters.getAnytimeWeightDecrement(), AEstrelaAnytime.DECREMENTO_PADRAO, 0);
+
+		// a large weight finds a first solution quickly, the last one is optimal
+		final List<Integer> costs = new ArrayList<Integer>();
+		AEstrelaAnytime busca = new AEstrelaAnytime() {
+			protected void novaSolucao(Nodo n, double limite) {
+				costs.add(n.g());
+			}
+		};
+		Nodo n = busca.busca(createInitialState("AnytimeAStar", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("A*: " + optimal + ", ARA*: " + costs + " " + n);
+		assertEquals(optimal, n.g());
+		assertEquals(1.0, busca.getLimite(), 0);
+		assertFalse(costs.isEmpty());
+	}
+
+	@Test
+	public void testInterchangeableGoals() throws Exception {
+		System.out.println("\n\ntestInterchangeableGoals");
+		AEstrela reference = new AEstrela();
+		Nodo optimal = reference.busca(createInitialState("InterchangeableGoalsReference", createSectorsTree()));
+		assertNotNull(optimal);
+		resetGoalTreeSingleton();
+
+		// track_1 and track_2 have the same parent and annotations, only track_1 can be assigned first
+		Parameters.setInterchangeableGoals(true);
+		try {
+			GoalTree gTree = createSectorsTree();
+			AEstrela busca = new AEstrela();
+			Nodo n = busca.busca(createInitialState("InterchangeableGoals", gTree));
+			GoalNode nw = gTree.getRootNode();
+			assertEquals(gTree.findAGoalByName(nw, "track_1"), gTree.getEquivalentPredecessor(gTree.findAGoalByName(nw, "track_2")));
+			assertNotNull(n);
+			System.out.println("A*: " + optimal.g() + " (" + reference.getStatus().getVisitados() + " visited), with symmetry breaking: "
+					+ n.g() + " (" + busca.getStatus().getVisitados() + " visited) " + n);
+			assertEquals(optimal.g(), n.g());
+			assertTrue(busca.getStatus().getVisitados() < reference.getStatus().getVisitados());
+		} finally {
+			Parameters.setInterchangeableGoals(false);
+		}
+	}
+
+	@Test
+	public void testFixedGoalOrder() throws Exception {
+		System.out.println("\n\ntestFixedGoalOrder");
+		AEstrela reference = new AEstrela();
+		Nodo optimal = reference.busca(createInitialState("FixedGoalOrderReference", createSectorsTree()));
+		assertNotNull(optimal);
+		resetGoalTreeSingleton();
+
+		// sectors first, each state branches only on the next goal
+		Parameters.setFixedGoalOrder(true);
+		try {
+			AEstrela busca = new AEstrela();
+			Nodo n = busca.busca(createInitialState("FixedGoalOrder", createSectorsTree()));
+			assertNotNull(n);
+			System.out.println("A*: " + optimal.g() + " (" + reference.getStatus().getVisitados() + " visited), in fixed goal order: "
+					+ n.g() + " (" + busca.getStatus().getVisitados() + " visited) " + n);
+			// not every chart can be built in this order, the solution may be worse
+			assertTrue(n.g() >= optimal.g());
+			assertTrue(busca.getStatus().getVisitados() < reference.getStatus().getVisitados());
+		} finally {
+			Parameters.setFixedGoalOrder(false);
+		}
+	}
+
+	@Test
+	public void testLazySuccessors() throws Exception {
+		System.out.println("\n\ntestLazySuccessors");
+		Organisation inicial = createInitialState("LazySuccessors", createSectorsTree());
+
+		// the iterator gives the same successors, in the same order, of the list
+		Organisation o = inicial;
+		while (o != null) {
+			List<Estado> suc = o.sucessores();
+			List<Estado> lazy = new ArrayList<Estado>();
+			o.iteradorSucessores().forEachRemaining(lazy::add);
+			System.out.println(o + ": " + suc.size() + " successors");
+			assertEquals(suc.toString(), lazy.toString());
+			o = suc.isEmpty() ? null : (Organisation) suc.get(suc.size() - 1);
+		}
+
+		// depth-first search takes the successors on demand
+		resetGoalTreeSingleton();
+		Nodo n = new BuscaProfundidade().busca(createInitialState("LazySuccessorsDFS", createSectorsTree()));
+		assertNotNull(n);
+		System.out.println("DFS: " + n);
+	}
+
+	@Test
+	public void testJoinSymmetricPositionsWithDifferentLoads() throws Exception {
+		System.out.println("\n\ntestJoinSymmetricPositionsWithDifferentLoads");
+		Parameters.getInstance();
+		Parameters.setMaxWorkload(1.0);
+		Parameters.setWorkloadGrain(1.0);
+
+		// t$0 and t$1 are parts of the same goal with different loads, x fits only with t$1
+		GoalNode s = new GoalNode(null, "S");
+		s.addAnnotation(new Workload("manage_sector", 0.1));
+		GoalTree gTree = GoalTree.getInstance();
+		gTree.setRootNode(s);
+		gTree.addGoal("t$0", "S");
+		gTree.findAGoalByName(s, "t$0").addAnnotation(new Workload("t", 0.5));
+		gTree.addGoal("t$1", "S");
+		gTree.findAGoalByName(s, "t$1").addAnnotation(new Workload("t", 0.3));
+		gTree.addGoal("x", "S");
+		gTree.findAGoalByName(s, "x").addAnnotation(new Workload("x", 0.6));
+
+		Organisation o0 = createInitialState("JoinSymmetricPositions", gTree);
+		Organisation o1 = o0.addSupremePosition(s);
+		Organisation o2 = o1.addSubordinatePosition(o1.getPositionsTree().getPosition(0), gTree.findAGoalByName(s, "t$0"));
+		Organisation o3 = o2.addSubordinatePosition(o2.getPositionsTree().getPosition(0), gTree.findAGoalByName(s, "t$1"));
+		// the positions of t$0 and t$1 have the same signature
+		assertEquals(o3.getPositionsTree().getPosition(1).toString(), o3.getPositionsTree().getPosition(2).toString());
+
+		GoalNode x = gTree.findAGoalByName(s, "x");
+		assertEquals(null, o3.joinExistingPosition(o3.getPositionsTree().getPosition(1), x));
+		Organisation joined = o3.joinExistingPosition(o3.getPositionsTree().getPosition(2), x);
+		assertNotNull(joined);
+		System.out.println("join into t$1: " + joined);
+		assertTrue(o3.sucessores().contains(joined));
+	}
+}